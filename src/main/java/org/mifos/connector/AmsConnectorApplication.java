@@ -28,9 +28,13 @@ public class AmsConnectorApplication {
                 .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
     }
 
+    /**
+     * Serializes the body to UTF-8 JSON bytes. Jackson encodes into its recycled buffers, the only copy is the final
+     * array, which is sent as it is with its length as content length.
+     */
     @Bean
-    public Processor pojoToString(ObjectMapper objectMapper) {
-        return exchange -> exchange.getIn().setBody(objectMapper.writeValueAsString(exchange.getIn().getBody()));
+    public Processor pojoToJson(ObjectMapper objectMapper) {
+        return exchange -> exchange.getIn().setBody(objectMapper.writeValueAsBytes(exchange.getIn().getBody()));
     }
 
     @Bean
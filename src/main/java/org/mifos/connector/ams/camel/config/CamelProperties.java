@@ -16,6 +16,10 @@ public final class CamelProperties {
     public static final String TRANSACTION_ROLE = "transactionRole";
     public static final String TRANSFER_ACTION = "transferAction";
     public static final String ZEEBE_JOB_KEY = "zeebeJobKey";
+    public static final String ZEEBE_JOB_TYPE = "zeebeJobType";
+    public static final String IDEMPOTENCY_KEY = "idempotencyKey";
+    public static final String IDEMPOTENCY_EXECUTION = "idempotencyExecution";
+    public static final String RESPONSE_TYPE = "responseType";
     public static final String PROCESS_TYPE = "processType";
 
     public static final String IS_ERROR_SET_MANUALLY = "isErrorSetManually";
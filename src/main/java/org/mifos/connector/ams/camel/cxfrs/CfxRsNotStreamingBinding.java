@@ -3,18 +3,22 @@ package org.mifos.connector.ams.camel.cxfrs;
 import java.io.InputStream;
 import org.apache.camel.Exchange;
 import org.apache.camel.component.cxf.jaxrs.DefaultCxfRsBinding;
-import org.apache.cxf.helpers.IOUtils;
 import org.apache.cxf.jaxrs.impl.ResponseImpl;
+import org.mifos.connector.ams.transport.ResponseBodyReader;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 @Component
 public class CfxRsNotStreamingBinding extends DefaultCxfRsBinding {
 
+    @Autowired
+    private ResponseBodyReader responseBodyReader;
+
     @Override
     public Object bindResponseToCamelBody(Object response, Exchange camelExchange) throws Exception {
         if (response instanceof ResponseImpl && ((ResponseImpl) response).getEntity() instanceof InputStream) {
-            InputStream inputStream = (InputStream) ((ResponseImpl) response).getEntity();
-            return IOUtils.toString(inputStream);
+            ResponseImpl responseImpl = (ResponseImpl) response;
+            return responseBodyReader.read(camelExchange, responseImpl.getStatus(), (InputStream) responseImpl.getEntity());
         }
         return super.bindResponseToCamelBody(response, camelExchange);
     }
@@ -1,9 +1,32 @@
 package org.mifos.connector.ams.camel.cxfrs;
 
+import static org.mifos.connector.ams.camel.config.CamelProperties.RESPONSE_TYPE;
+import static org.mifos.connector.ams.camel.config.CamelProperties.ZEEBE_JOB_TYPE;
+import static org.mifos.connector.ams.zeebe.ZeebeVariables.TENANT_ID;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.camel.Exchange;
 import org.apache.camel.ExchangePattern;
-import org.apache.camel.ProducerTemplate;
+import org.mifos.connector.ams.tenant.BulkheadFullException;
+import org.mifos.connector.ams.tenant.TenantBulkheads;
+import org.mifos.connector.ams.transport.AmsResponse;
+import org.mifos.connector.ams.transport.AmsTransport;
+import org.mifos.connector.ams.transport.EndpointLimiters;
+import org.mifos.connector.ams.transport.ReadRetries;
+import org.mifos.connector.ams.transport.RequestCoalescer;
+import org.mifos.connector.ams.transport.RequestHedger;
+import org.mifos.connector.ams.transport.ResponseBodyReader;
+import org.mifos.connector.ams.zeebe.JobMetrics;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -11,20 +34,354 @@ import org.springframework.stereotype.Component;
 public class CxfrsUtil {
 
     @Autowired
-    private ProducerTemplate template;
+    private AmsTransport transport;
+
+    @Autowired
+    private JobMetrics jobMetrics;
+
+    @Autowired
+    private TenantBulkheads tenantBulkheads;
+
+    @Autowired
+    private RequestCoalescer requestCoalescer;
+
+    @Autowired
+    private EndpointLimiters endpointLimiters;
+
+    @Autowired
+    private RequestHedger requestHedger;
+
+    @Autowired
+    private ReadRetries readRetries;
+
+    @Autowired
+    private ResponseBodyReader responseBodyReader;
+
+    @Autowired
+    private ObjectMapper objectMapper;
 
     /**
-     * Warning! Clears IN headers.
+     * Warning! Clears IN headers. Throws {@link org.mifos.connector.ams.tenant.BulkheadFullException} when the tenant of the
+     * exchange has too many calls in flight, or the endpoint is at its limit or its circuit is open, see
+     * {@link EndpointLimiters}.
      */
     public void sendInOut(String endpoint, Exchange ex, Map<String, Object> headers, Object body) {
+        sendInOut(endpoint, ex, headers, body, null);
+    }
+
+    /**
+     * Like {@link #sendInOut(String, Exchange, Map, Object)}, a successful response is deserialized straight into the
+     * response type, other responses are set as String. A read issued while the same read is in flight shares its
+     * response, see {@link RequestCoalescer}.
+     */
+    public void sendInOut(String endpoint, Exchange ex, Map<String, Object> headers, Object body, Class<?> responseType) {
+        sendInOut(endpoint, ex, headers, body, responseType, false);
+    }
+
+    /**
+     * Like {@link #sendInOut(String, Exchange, Map, Object, Class)} for an idempotent GET, which is retried after 5xx
+     * responses and failures, see {@link ReadRetries}, and hedged when ams.local.hedging is enabled, see
+     * {@link RequestHedger}. Without hedging the backoff before a retry blocks the calling thread.
+     */
+    public void sendRead(String endpoint, Exchange ex, Map<String, Object> headers, Class<?> responseType) {
+        sendInOut(endpoint, ex, headers, null, responseType, true);
+    }
+
+    private void sendInOut(String endpoint, Exchange ex, Map<String, Object> headers, Object body, Class<?> responseType,
+            boolean read) {
+        String tenant = ex.getProperty(TENANT_ID, String.class);
+        String key = requestCoalescer.key(endpoint, tenant, headers, body, responseType);
+        if (key == null) {
+            send(endpoint, ex, headers, body, responseType, read);
+            return;
+        }
+        Flight flight = new Flight();
+        Flight inFlight = (Flight) requestCoalescer.join(key, flight);
+        if (inFlight != null) {
+            inFlight.waiters.incrementAndGet();
+            SharedResponse response = requestCoalescer.await(inFlight);
+            if (response != null) {
+                requestCoalescer.countCoalesced(endpointName(endpoint), tenant);
+                response.applyTo(ex, objectMapper);
+            } else {
+                send(endpoint, ex, headers, body, responseType, read);
+            }
+            return;
+        }
+        boolean sent = false;
+        try {
+            send(endpoint, ex, headers, body, responseType, read);
+            sent = true;
+        } finally {
+            requestCoalescer.land(key, flight);
+            // no caller joins after the landing, the response is copied only if one joined before. Callers that joined after
+            // the count was read, and the callers of a call that failed before a response was received, make the call again
+            flight.complete(sent && flight.waiters.get() > 0 ? share(ex) : null);
+        }
+    }
+
+    /**
+     * @return the response of the exchange for the waiting callers, null when its body can not be copied for them
+     */
+    private SharedResponse share(Exchange ex) {
+        try {
+            return new SharedResponse(ex, objectMapper);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private void send(String endpoint, Exchange ex, Map<String, Object> headers, Object body, Class<?> responseType,
+            boolean read) {
+        if (read && requestHedger.isEnabled()) {
+            sendHedged(endpoint, ex, headers, responseType);
+            return;
+        }
         ExchangePattern oldPattern = ex.getPattern();
         if (body != null) {
             ex.getIn().setBody(body);
         }
-        ex.getIn().removeHeaders("*");
-        ex.getIn().setHeaders(headers);
         ex.setPattern(ExchangePattern.InOut);
-        template.send(endpoint, ex);
-        ex.setPattern(oldPattern);
+        try {
+            for (int attempt = 1;; attempt++) {
+                ex.getIn().removeHeaders("*");
+                ex.getIn().setHeaders(headers);
+                sendOnce(endpoint, ex, responseType);
+                if (!read) {
+                    break;
+                }
+                long delayMs = readRetries.retryDelayMs(endpointName(endpoint), ex.getProperty(TENANT_ID, String.class), attempt,
+                        ex.getIn().getHeader(Exchange.HTTP_RESPONSE_CODE, Integer.class), ex.getException());
+                if (delayMs < 0) {
+                    break;
+                }
+                // the permits of the failed attempt are released, the thread sleeps without holding any
+                try {
+                    Thread.sleep(delayMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                ex.setException(null);
+            }
+        } finally {
+            ex.setPattern(oldPattern);
+        }
+    }
+
+    private void sendOnce(String endpoint, Exchange ex, Class<?> responseType) {
+        String tenant = ex.getProperty(TENANT_ID, String.class);
+        tenantBulkheads.acquire(tenant);
+        EndpointLimiters.Permit permit;
+        try {
+            permit = endpointLimiters.acquire(endpointName(endpoint), tenant);
+        } catch (RuntimeException e) {
+            tenantBulkheads.release(tenant);
+            throw e;
+        }
+        if (responseType != null) {
+            ex.setProperty(RESPONSE_TYPE, responseType);
+        }
+        long start = System.nanoTime();
+        try {
+            transport.send(endpoint, ex);
+        } finally {
+            permit.release(ex.getIn().getHeader(Exchange.HTTP_RESPONSE_CODE, Integer.class), ex.getException());
+            tenantBulkheads.release(tenant);
+            ex.removeProperty(RESPONSE_TYPE);
+        }
+        jobMetrics.recordFineractCall(ex, endpointName(endpoint), System.nanoTime() - start);
+    }
+
+    /**
+     * The attempts of a hedged read run on the asynchronous path, the caller waits for the first response and the
+     * response is set on the IN message the way {@link AmsTransport#send(String, Exchange)} sets it. The caller queues for
+     * the tenant permit of the first attempt like any synchronous call, retries and hedges take theirs without waiting.
+     */
+    private void sendHedged(String endpoint, Exchange ex, Map<String, Object> headers, Class<?> responseType) {
+        String tenant = ex.getProperty(TENANT_ID, String.class);
+        String jobType = ex.getProperty(ZEEBE_JOB_TYPE, String.class);
+        ex.getIn().removeHeaders("*");
+        tenantBulkheads.acquire(tenant);
+        AtomicBoolean acquired = new AtomicBoolean(true);
+        CompletableFuture<AmsResponse> read;
+        try {
+            read = readAsync(endpoint, jobType, tenant, headers, acquired);
+        } finally {
+            if (acquired.getAndSet(false)) {
+                tenantBulkheads.release(tenant);
+            }
+        }
+        AmsResponse response;
+        try {
+            response = read.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof BulkheadFullException) {
+                throw (BulkheadFullException) e.getCause();
+            }
+            ex.setException(e.getCause());
+            return;
+        }
+        ex.getIn().setHeader(Exchange.HTTP_RESPONSE_CODE, response.getStatusCode());
+        byte[] responseBody = response.getBodyBytes();
+        if (responseBody == null) {
+            ex.getIn().setBody(null);
+            return;
+        }
+        if (responseType != null) {
+            ex.setProperty(RESPONSE_TYPE, responseType);
+        }
+        try {
+            ex.getIn().setBody(responseBodyReader.read(ex, response.getStatusCode(), new ByteArrayInputStream(responseBody)));
+        } catch (IOException e) {
+            ex.setException(e);
+        } finally {
+            ex.removeProperty(RESPONSE_TYPE);
+        }
+    }
+
+    /**
+     * Sends the request without an exchange and without blocking the caller. A tenant without a free call permit fails the
+     * stage with {@link BulkheadFullException} right away instead of queueing. A read issued while the same read is in
+     * flight shares its response.
+     */
+    public CompletionStage<AmsResponse> sendAsync(String endpoint, String jobType, String tenant, Map<String, Object> headers,
+            Object body) {
+        return sendAsync(endpoint, jobType, tenant, headers, body, false);
+    }
+
+    /**
+     * Like {@link #sendAsync(String, String, String, Map, Object)} for an idempotent GET, which is retried and hedged like
+     * {@link #sendRead(String, Exchange, Map, Class)}.
+     */
+    public CompletionStage<AmsResponse> sendReadAsync(String endpoint, String jobType, String tenant, Map<String, Object> headers) {
+        return sendAsync(endpoint, jobType, tenant, headers, null, true);
+    }
+
+    private CompletionStage<AmsResponse> sendAsync(String endpoint, String jobType, String tenant, Map<String, Object> headers,
+            Object body, boolean read) {
+        String key = requestCoalescer.key(endpoint, tenant, headers, body, AmsResponse.class);
+        if (key == null) {
+            return call(endpoint, jobType, tenant, headers, body, read);
+        }
+        CompletableFuture<AmsResponse> flight = new CompletableFuture<>();
+        CompletableFuture<AmsResponse> inFlight = requestCoalescer.join(key, flight);
+        if (inFlight != null) {
+            requestCoalescer.countCoalesced(endpointName(endpoint), tenant);
+            return inFlight.copy();
+        }
+        call(endpoint, jobType, tenant, headers, body, read).whenComplete((response, error) -> {
+            requestCoalescer.land(key, flight);
+            if (error != null) {
+                flight.completeExceptionally(error);
+            } else {
+                flight.complete(response);
+            }
+        });
+        return flight.copy();
+    }
+
+    private CompletableFuture<AmsResponse> call(String endpoint, String jobType, String tenant, Map<String, Object> headers,
+            Object body, boolean read) {
+        return read ? readAsync(endpoint, jobType, tenant, headers, null) : send(endpoint, jobType, tenant, headers, body, null);
+    }
+
+    /**
+     * Each attempt of a hedged read is retried on its own.
+     *
+     * @param acquired set while the caller holds a tenant permit, taken over by the first attempt, null if it holds none
+     */
+    private CompletableFuture<AmsResponse> readAsync(String endpoint, String jobType, String tenant, Map<String, Object> headers,
+            AtomicBoolean acquired) {
+        if (!requestHedger.isEnabled()) {
+            return readRetries.send(endpoint, tenant, attempt -> send(attempt, jobType, tenant, headers, null, acquired));
+        }
+        return requestHedger.send(endpoint, tenant,
+                hedge -> readRetries.send(hedge, tenant, attempt -> send(attempt, jobType, tenant, headers, null, acquired)));
+    }
+
+    /**
+     * Cancelling the returned future releases the permits of the call right away and aborts the request where the
+     * transport can.
+     */
+    private CompletableFuture<AmsResponse> send(String endpoint, String jobType, String tenant, Map<String, Object> headers,
+            Object body, AtomicBoolean acquired) {
+        if (acquired == null || !acquired.compareAndSet(true, false)) {
+            try {
+                tenantBulkheads.acquireNow(tenant);
+            } catch (BulkheadFullException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        EndpointLimiters.Permit permit;
+        try {
+            permit = endpointLimiters.acquire(endpointName(endpoint), tenant);
+        } catch (BulkheadFullException e) {
+            tenantBulkheads.release(tenant);
+            return CompletableFuture.failedFuture(e);
+        }
+        long start = System.nanoTime();
+        CompletableFuture<AmsResponse> call;
+        try {
+            call = transport.sendAsync(endpoint, headers, body).toCompletableFuture();
+        } catch (Throwable e) {
+            // e.g. a path that is no valid URI, the call never started
+            permit.release(null, e);
+            tenantBulkheads.release(tenant);
+            return CompletableFuture.failedFuture(e);
+        }
+        call.whenComplete((response, error) -> {
+            permit.release(response != null ? response.getStatusCode() : null, error);
+            tenantBulkheads.release(tenant);
+            jobMetrics.recordFineractCall(jobType, tenant, endpointName(endpoint), response != null ? response.getStatusCode() : null,
+                    System.nanoTime() - start);
+        });
+        return call;
+    }
+
+    private static String endpointName(String endpoint) {
+        return endpoint.substring(endpoint.lastIndexOf(':') + 1);
+    }
+
+    /**
+     * Synchronous call in flight, counts the callers waiting for its response.
+     */
+    private static final class Flight extends CompletableFuture<SharedResponse> {
+
+        private final AtomicInteger waiters = new AtomicInteger();
+    }
+
+    /**
+     * Response of a synchronous call, set on the exchanges of the callers that waited for it. A deserialized body is kept
+     * as JSON and read back for each caller, so the callers never share a mutable body.
+     */
+    private static final class SharedResponse {
+
+        private final Map<String, Object> headers;
+        private final String text;
+        private final byte[] json;
+        private final Class<?> bodyType;
+        private final Exception exception;
+
+        private SharedResponse(Exchange ex, ObjectMapper objectMapper) throws JsonProcessingException {
+            Object body = ex.getIn().getBody();
+            this.headers = new HashMap<>(ex.getIn().getHeaders());
+            this.text = body instanceof String ? (String) body : null;
+            this.json = body == null || body instanceof String ? null : objectMapper.writeValueAsBytes(body);
+            this.bodyType = json == null ? null : body.getClass();
+            this.exception = ex.getException();
+        }
+
+        private void applyTo(Exchange ex, ObjectMapper objectMapper) {
+            ex.getIn().removeHeaders("*");
+            ex.getIn().setHeaders(new HashMap<>(headers));
+            ex.setException(exception);
+            try {
+                ex.getIn().setBody(json == null ? text : objectMapper.readValue(json, bodyType));
+            } catch (IOException e) {
+                ex.getIn().setBody(null);
+                ex.setException(e);
+            }
+        }
     }
 }
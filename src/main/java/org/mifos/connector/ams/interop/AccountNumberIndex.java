@@ -0,0 +1,290 @@
+package org.mifos.connector.ams.interop;
+
+import static org.apache.camel.Exchange.HTTP_METHOD;
+import static org.apache.camel.Exchange.HTTP_PATH;
+import static org.mifos.connector.ams.camel.cxfrs.HeaderBasedInterceptor.CXF_TRACE_HEADER;
+import static org.mifos.connector.ams.zeebe.ZeebeVariables.TENANT_ID;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.component.cxf.common.message.CxfConstants;
+import org.apache.camel.support.DefaultExchange;
+import org.mifos.connector.ams.camel.cxfrs.CxfrsUtil;
+import org.mifos.connector.ams.properties.Tenant;
+import org.mifos.connector.ams.properties.TenantProperties;
+import org.mifos.connector.ams.tenant.TenantService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+/**
+ * In memory index of the FineractX savings accounts of each tenant by account number, read in the background from the
+ * savingsaccounts pages in id order, first refresh-ms after startup. Every refresh-ms the pages after the last one read
+ * are fetched again, which picks up new accounts; every full-refresh-ms the index of a tenant is rebuilt, which picks up
+ * changed and removed accounts, so those are stale for up to full-refresh-ms. A rebuild that fails, e.g. because the
+ * tenant's bulkhead stays full, resumes from the last page read on the next refresh instead of starting over. The pages
+ * are read like any synchronous call, waiting in the bulkhead queue of the tenant. The accounts are kept in parallel
+ * arrays of an open addressing table, not as objects. Lookups that miss fall back to Fineract, see
+ * {@link AmsFinXService#findSavingsAccount(org.apache.camel.Exchange)}.
+ */
+@Component
+@ConditionalOnExpression("'${ams.local.version}'.equals('1.2')")
+public class AccountNumberIndex {
+
+    public static final String INDEX_METRIC = "ams.cache.account.index";
+
+    private Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    @Autowired
+    private TenantProperties tenantProperties;
+
+    @Autowired
+    private TenantService tenantService;
+
+    @Autowired
+    private CxfrsUtil cxfrsUtil;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CamelContext camelContext;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${cache.account-index.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cache.account-index.refresh-ms:60000}")
+    private long refreshMs;
+
+    @Value("${cache.account-index.full-refresh-ms:900000}")
+    private long fullRefreshMs;
+
+    @Value("${ams.local.account.savingsaccounts-path}")
+    private String amsSavingsAccountsPath;
+
+    @Value("${ams.local.account.savingsaccounts-page-size:200}")
+    private int pageSize;
+
+    private final Map<String, Accounts> tenants = new ConcurrentHashMap<>();
+    // rebuilds in progress, only accessed by the refresh thread
+    private final Map<String, Accounts> rebuilds = new HashMap<>();
+    private Timer refreshTimer;
+
+    @PostConstruct
+    public void setup() {
+        if (!enabled) {
+            return;
+        }
+        refreshTimer = Timer.builder(INDEX_METRIC + ".refresh").description("Duration of the index refreshes of a tenant")
+                .register(meterRegistry);
+        camelContext.getExecutorServiceManager().newSingleThreadScheduledExecutor(this, "account-number-index")
+                .scheduleWithFixedDelay(this::refresh, refreshMs, refreshMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return the indexed account, null if the account or the index of the tenant is not known
+     */
+    public SavingsAccountSummary get(String tenant, String accountNo) {
+        if (!enabled || accountNo == null) {
+            return null;
+        }
+        Accounts accounts = tenants.get(tenant);
+        SavingsAccountSummary account = accounts != null ? accounts.get(accountNo) : null;
+        Counter.builder(INDEX_METRIC + ".requests").tag("tenant", tenant).tag("result", account != null ? "hit" : "miss")
+                .register(meterRegistry).increment();
+        return account;
+    }
+
+    /**
+     * Adds an account found in Fineract after a miss, until the next refresh indexes it.
+     */
+    public void put(String tenant, SavingsAccountSummary account) {
+        Accounts accounts = enabled ? tenants.get(tenant) : null;
+        if (accounts != null) {
+            accounts.put(account);
+        }
+    }
+
+    private void refresh() {
+        for (Tenant tenant : tenantProperties.getTenants()) {
+            long start = System.nanoTime();
+            try {
+                Accounts accounts = tenants.get(tenant.getName());
+                Accounts built = rebuilds.get(tenant.getName());
+                if (built == null && (accounts == null || System.currentTimeMillis() - accounts.builtAt > fullRefreshMs)) {
+                    built = new Accounts();
+                    rebuilds.put(tenant.getName(), built);
+                }
+                if (built != null) {
+                    // from the start, or again from the last page read by a rebuild that failed
+                    read(tenant.getName(), built, Math.max(0, built.read - pageSize));
+                    rebuilds.remove(tenant.getName());
+                    tenants.put(tenant.getName(), built);
+                    if (accounts == null) {
+                        Gauge.builder(INDEX_METRIC + ".size", tenants, t -> t.get(tenant.getName()).size()).tag("tenant", tenant.getName())
+                                .register(meterRegistry);
+                    }
+                    logger.info("Indexed {} savings accounts of tenant {}", built.size(), tenant.getName());
+                } else {
+                    // the last page again, accounts removed since it was read shift the offsets of the later ones
+                    read(tenant.getName(), accounts, Math.max(0, accounts.read - pageSize));
+                }
+            } catch (RuntimeException | IOException e) {
+                logger.warn("Refresh of the savings account index of tenant {} failed: {}", tenant.getName(), e.getMessage());
+            } finally {
+                refreshTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private void read(String tenant, Accounts accounts, int offset) throws IOException {
+        for (;; offset += pageSize) {
+            Map<String, String> queryMap = new LinkedHashMap<>();
+            queryMap.put("offset", String.valueOf(offset));
+            queryMap.put("limit", String.valueOf(pageSize));
+            queryMap.put("orderBy", "id");
+            queryMap.put("sortOrder", "ASC");
+            Map<String, Object> headers = new HashMap<>(tenantService.getHeaders(tenant));
+            headers.put(CXF_TRACE_HEADER, true);
+            headers.put(HTTP_METHOD, "GET");
+            headers.put(HTTP_PATH, amsSavingsAccountsPath);
+            headers.put(CxfConstants.CAMEL_CXF_RS_QUERY_MAP, queryMap);
+            Exchange exchange = new DefaultExchange(camelContext);
+            exchange.setProperty(TENANT_ID, tenant);
+            cxfrsUtil.sendRead("cxfrs:bean:ams.local.account", exchange, headers, null);
+            if (exchange.getException() != null) {
+                throw new IOException("savingsaccounts failed: " + exchange.getException().getMessage(), exchange.getException());
+            }
+            Integer statusCode = exchange.getIn().getHeader(Exchange.HTTP_RESPONSE_CODE, Integer.class);
+            if (statusCode == null || statusCode < 200 || statusCode > 202) {
+                throw new IllegalStateException("savingsaccounts responded with " + statusCode);
+            }
+            int[] page = {0, Integer.MAX_VALUE};
+            try (JsonParser parser = objectMapper.getFactory().createParser(exchange.getIn().getBody(String.class))) {
+                SavingsAccountSummary.scan(parser, account -> {
+                    accounts.put(account);
+                    return false;
+                }, page);
+            }
+            accounts.read = offset + page[0];
+            if (page[0] < pageSize || accounts.read >= page[1]) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * The accounts of a tenant, keyed by account number with linear probing. Written by the refresh thread and by
+     * {@link #put(String, SavingsAccountSummary)}, guarded by its monitor.
+     */
+    static final class Accounts {
+
+        private final long builtAt = System.currentTimeMillis();
+        // accounts read from Fineract in id order, the offset of the next refresh
+        private volatile int read;
+        private String[] accountNos = new String[1024];
+        private String[] externalIds = new String[1024];
+        private short[] currencies = new short[1024];
+        private short[] statuses = new short[1024];
+        private String[] currencyCodes = new String[0];
+        private int size;
+
+        synchronized SavingsAccountSummary get(String accountNo) {
+            int slot = slot(accountNos, accountNo);
+            if (accountNos[slot] == null) {
+                return null;
+            }
+            short currency = currencies[slot];
+            return new SavingsAccountSummary(accountNo, externalIds[slot], currency >= 0 ? currencyCodes[currency] : null, statuses[slot]);
+        }
+
+        synchronized void put(SavingsAccountSummary account) {
+            if (account.getAccountNo() == null) {
+                return;
+            }
+            if (size * 2 >= accountNos.length) {
+                resize();
+            }
+            int slot = slot(accountNos, account.getAccountNo());
+            if (accountNos[slot] == null) {
+                accountNos[slot] = account.getAccountNo();
+                size++;
+            }
+            externalIds[slot] = account.getExternalId();
+            currencies[slot] = currency(account.getCurrencyCode());
+            statuses[slot] = (short) account.getStatusId();
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        private short currency(String code) {
+            if (code == null) {
+                return -1;
+            }
+            for (short i = 0; i < currencyCodes.length; i++) {
+                if (currencyCodes[i].equals(code)) {
+                    return i;
+                }
+            }
+            currencyCodes = Arrays.copyOf(currencyCodes, currencyCodes.length + 1);
+            currencyCodes[currencyCodes.length - 1] = code;
+            return (short) (currencyCodes.length - 1);
+        }
+
+        private void resize() {
+            String[] oldAccountNos = accountNos;
+            String[] oldExternalIds = externalIds;
+            short[] oldCurrencies = currencies;
+            short[] oldStatuses = statuses;
+            int capacity = oldAccountNos.length * 2;
+            accountNos = new String[capacity];
+            externalIds = new String[capacity];
+            currencies = new short[capacity];
+            statuses = new short[capacity];
+            for (int i = 0; i < oldAccountNos.length; i++) {
+                if (oldAccountNos[i] != null) {
+                    int slot = slot(accountNos, oldAccountNos[i]);
+                    accountNos[slot] = oldAccountNos[i];
+                    externalIds[slot] = oldExternalIds[i];
+                    currencies[slot] = oldCurrencies[i];
+                    statuses[slot] = oldStatuses[i];
+                }
+            }
+        }
+
+        /**
+         * @return the slot of the account number, or the empty slot it belongs in
+         */
+        private static int slot(String[] keys, String accountNo) {
+            int mask = keys.length - 1;
+            int hash = accountNo.hashCode() * 0x9E3779B9;
+            int slot = (hash ^ hash >>> 16) & mask;
+            while (keys[slot] != null && !keys[slot].equals(accountNo)) {
+                slot = slot + 1 & mask;
+            }
+            return slot;
+        }
+    }
+}
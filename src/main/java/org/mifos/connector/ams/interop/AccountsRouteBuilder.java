@@ -7,7 +7,6 @@ import static org.mifos.connector.ams.zeebe.ZeebeVariables.TENANT_ID;
 
 import org.apache.camel.LoggingLevel;
 import org.apache.camel.builder.RouteBuilder;
-import org.apache.camel.model.dataformat.JsonLibrary;
 import org.json.JSONObject;
 import org.mifos.connector.common.ams.dto.ClientData;
 import org.mifos.connector.common.ams.dto.Customer;
@@ -39,8 +38,7 @@ public class AccountsRouteBuilder extends RouteBuilder {
                 .log(LoggingLevel.INFO,
                         "##ams-connector-account-management-status-check: ${exchangeProperty." + PARTY_ID_TYPE
                                 + "} with value: ${exchangeProperty." + PARTY_ID + "}")
-                .to("direct:get-external-account").process(amsService::getSavingsAccount).unmarshal()
-                .json(JsonLibrary.Jackson, InteropAccountDTO.class).process(e -> {
+                .to("direct:get-external-account").process(amsService::getSavingsAccount).process(e -> {
                     InteropAccountDTO account = e.getIn().getBody(InteropAccountDTO.class);
                     JSONObject response = new JSONObject();
                     response.put("accountStatus", account.getStatus().getCode());
@@ -65,12 +63,10 @@ public class AccountsRouteBuilder extends RouteBuilder {
                 .process(amsService::getSavingsAccount)
                 .choice()
                     .when(e -> "1.2".equals(amsVersion))
-                        .unmarshal().json(JsonLibrary.Jackson, InteropAccountDTO.class)
                         .process(e -> e.setProperty(CLIENT_ID, e.getIn().getBody(InteropAccountDTO.class).getClientId()))
                         .process(amsService::getClientImage)
                         .process(e -> e.setProperty("client_image", e.getIn().getBody(String.class)))
                         .process(amsService::getClient)
-                        .unmarshal().json(JsonLibrary.Jackson, ClientData.class)
                         .process(e -> {
                             ClientData customer = e.getIn().getBody(ClientData.class);
                             JSONObject response = new JSONObject();
@@ -88,10 +84,8 @@ public class AccountsRouteBuilder extends RouteBuilder {
                         })
                     .endChoice()
                     .otherwise() // cn
-                        .unmarshal().json(JsonLibrary.Jackson, ProductInstance.class)
-                            .process(e -> e.setProperty(CLIENT_ID, e.getIn().getBody(ProductInstance.class).getCustomerIdentifier()))
+                        .process(e -> e.setProperty(CLIENT_ID, e.getIn().getBody(ProductInstance.class).getCustomerIdentifier()))
                         .process(amsService::getClient)
-                        .unmarshal().json(JsonLibrary.Jackson, Customer.class)
                         .process(e -> {
                             Customer customer = e.getIn().getBody(Customer.class);
                             JSONObject response = new JSONObject();
@@ -122,7 +116,6 @@ public class AccountsRouteBuilder extends RouteBuilder {
                 .log(LoggingLevel.INFO, "##ams-connector-account-management-status-check: ${exchangeProperty." + PARTY_ID_TYPE + "} with value: ${exchangeProperty." + PARTY_ID + "}")
                 .to("direct:get-external-account")
                 .process(amsService::getSavingsAccount)
-                .unmarshal().json(JsonLibrary.Jackson, InteropAccountDTO.class)
                 .process(e -> {
                     InteropAccountDTO account = e.getIn().getBody(InteropAccountDTO.class);
                     JSONObject response = new JSONObject();
@@ -4,6 +4,7 @@ import static org.apache.camel.Exchange.HTTP_METHOD;
 import static org.apache.camel.Exchange.HTTP_PATH;
 import static org.mifos.connector.ams.camel.config.CamelProperties.TRANSFER_ACTION;
 import static org.mifos.connector.ams.camel.cxfrs.HeaderBasedInterceptor.CXF_TRACE_HEADER;
+import static org.mifos.connector.ams.logging.HotPathLogging.PAYLOADS;
 import static org.mifos.connector.ams.zeebe.ZeebeVariables.ACCOUNT_NUMBER;
 import static org.mifos.connector.ams.zeebe.ZeebeVariables.PARTY_ID;
 import static org.mifos.connector.ams.zeebe.ZeebeVariables.PARTY_ID_TYPE;
@@ -12,10 +13,14 @@ import static org.mifos.connector.ams.zeebe.ZeebeVariables.TENANT_ID;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import javax.annotation.PostConstruct;
 import org.apache.camel.Exchange;
 import org.apache.camel.component.cxf.common.message.CxfConstants;
 import org.mifos.connector.ams.camel.cxfrs.CxfrsUtil;
+import org.mifos.connector.ams.logging.HotPathLogging;
 import org.mifos.connector.ams.tenant.TenantService;
+import org.mifos.connector.ams.utils.PathTemplate;
+import org.mifos.connector.common.ams.dto.PartyFspResponseDTO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -45,6 +50,12 @@ public class AmsCommonService {
 
     @Autowired
     private CxfrsUtil cxfrsUtil;
+
+    @Autowired
+    private HotPathLogging hotPathLogging;
+
+    @Autowired
+    private ClientCache clientCache;
     @Autowired
     RestTemplate restTemplate;
 
@@ -62,67 +73,107 @@ public class AmsCommonService {
 
     private static final String APPLICATION_TYPE = "application/json";
 
-    public void getLocalQuote(Exchange e) {
+    private PathTemplate interopPartiesPath;
+    private PathTemplate loanRepaymentPath;
+
+    @PostConstruct
+    public void setupPaths() {
+        interopPartiesPath = PathTemplate.compile(amsInteropPartiesPath, "idType", "idValue");
+        loanRepaymentPath = PathTemplate.compile(amsLoanRepaymentPath, "accountNumber");
+    }
+
+    /**
+     * @return the headers of a Fineract call of the tenant, callers add the call specific headers
+     */
+    protected Map<String, Object> headers(String method, String path, String tenantId) {
         Map<String, Object> headers = new HashMap<>();
+        headers.putAll(tenantService.getHeaders(tenantId));
         headers.put(CXF_TRACE_HEADER, true);
-        headers.put(HTTP_METHOD, "POST");
-        headers.put(HTTP_PATH, amsInteropQuotesPath);
+        headers.put(HTTP_METHOD, method);
+        headers.put(HTTP_PATH, path);
+        return headers;
+    }
+
+    /**
+     * Sets the cached client on the IN message as the Fineract call would.
+     *
+     * @return false if the client is not cached
+     */
+    protected boolean cachedClient(Exchange e, String tenantId, String clientId) {
+        Object client = clientCache.getClient(tenantId, clientId);
+        if (client == null) {
+            return false;
+        }
+        e.getIn().removeHeaders("*");
+        e.getIn().setHeader(Exchange.HTTP_RESPONSE_CODE, 200);
+        e.getIn().setBody(client);
+        return true;
+    }
+
+    /**
+     * Caches the client of a successful, deserialized client response.
+     */
+    protected void cacheClient(Exchange e, String tenantId, String clientId) {
+        Integer responseCode = e.getIn().getHeader(Exchange.HTTP_RESPONSE_CODE, Integer.class);
+        Object client = e.getIn().getBody();
+        if (responseCode != null && responseCode <= 202 && client != null && !(client instanceof String)) {
+            clientCache.putClient(tenantId, clientId, client);
+        }
+    }
+
+    private String partiesPath(Exchange e) {
+        return interopPartiesPath.expand(e.getProperty(PARTY_ID_TYPE, String.class), e.getProperty(PARTY_ID, String.class));
+    }
+
+    public void getLocalQuote(Exchange e) {
+        Map<String, Object> headers = headers("POST", amsInteropQuotesPath, e.getProperty(TENANT_ID, String.class));
         headers.put("Content-Type", "application/json");
-        headers.putAll(tenantService.getHeaders(e.getProperty(TENANT_ID, String.class)));
         cxfrsUtil.sendInOut("cxfrs:bean:ams.local.interop", e, headers, e.getIn().getBody());
     }
 
     public void getExternalAccount(Exchange e) {
-        Map<String, Object> headers = new HashMap<>();
-        headers.put(CXF_TRACE_HEADER, true);
-        headers.put(HTTP_METHOD, "GET");
-        headers.put(HTTP_PATH, amsInteropPartiesPath.replace("{idType}", e.getProperty(PARTY_ID_TYPE, String.class)).replace("{idValue}",
-                e.getProperty(PARTY_ID, String.class)));
-        headers.putAll(tenantService.getHeaders(e.getProperty(TENANT_ID, String.class)));
+        Map<String, Object> headers = headers("GET", partiesPath(e), e.getProperty(TENANT_ID, String.class));
         if (isAmsLocalEnabled) {
-            cxfrsUtil.sendInOut("cxfrs:bean:ams.local.interop", e, headers, null);
+            cxfrsUtil.sendRead("cxfrs:bean:ams.local.interop", e, headers, PartyFspResponseDTO.class);
         } else {
             logger.info("-------------- Calling Mock external Account API --------------");
             headers.put(HTTP_PATH, mockServiceAmsInteropPartiesPath);
-            cxfrsUtil.sendInOut("cxfrs:bean:mock-service.local.interop", e, headers, null);
+            cxfrsUtil.sendInOut("cxfrs:bean:mock-service.local.interop", e, headers, null, PartyFspResponseDTO.class);
         }
         // cxfrsUtil.sendInOut("cxfrs:bean:ams.local.interop", e, headers, null);
     }
 
     public void sendTransfer(Exchange e) {
-        Map<String, Object> headers = new HashMap<>();
-        headers.put(CXF_TRACE_HEADER, true);
-        headers.put(HTTP_METHOD, "POST");
-        headers.put(HTTP_PATH, amsInteropTransfersPath);
-        logger.info("Send Transfer Body: {}", e.getIn().getBody());
+        Map<String, Object> headers = headers("POST", amsInteropTransfersPath, e.getProperty(TENANT_ID, String.class));
+        if (logger.isDebugEnabled() && hotPathLogging.sample(PAYLOADS)) {
+            logger.debug("Send Transfer Body: {}", hotPathLogging.truncate(e.getIn().getBody()));
+        }
         Map<String, String> queryMap = new LinkedHashMap<>();
         queryMap.put("action", e.getProperty(TRANSFER_ACTION, String.class));
         headers.put(CxfConstants.CAMEL_CXF_RS_QUERY_MAP, queryMap);
         headers.put("Content-Type", "application/json");
-        headers.putAll(tenantService.getHeaders(e.getProperty(TENANT_ID, String.class)));
         if (isAmsLocalEnabled) {
             cxfrsUtil.sendInOut("cxfrs:bean:ams.local.interop", e, headers, e.getIn().getBody());
         } else {
             logger.info("-------------- Calling Mock transfers APIs --------------");
             headers.put(HTTP_PATH, mockServiceInteropTransfersPath);
-            cxfrsUtil.sendInOut("cxfrs:bean:mock-service.local.interop", e, headers, e.getIn().getBody().toString());
+            cxfrsUtil.sendInOut("cxfrs:bean:mock-service.local.interop", e, headers, e.getIn().getBody());
         }
     }
 
     public void repayLoan(Exchange e) {
-        Map<String, Object> headers = new HashMap<>();
-        headers.put(CXF_TRACE_HEADER, true);
-        headers.put(HTTP_METHOD, "POST");
-        headers.put(HTTP_PATH, amsLoanRepaymentPath.replace("{accountNumber}", e.getProperty(ACCOUNT_NUMBER, String.class)));
-        logger.debug("Loan Repayment Body: {}", e.getIn().getBody());
+        Map<String, Object> headers = headers("POST", loanRepaymentPath.expand(e.getProperty(ACCOUNT_NUMBER, String.class)),
+                e.getProperty(TENANT_ID, String.class));
+        if (logger.isDebugEnabled() && hotPathLogging.sample(PAYLOADS)) {
+            logger.debug("Loan Repayment Body: {}", hotPathLogging.truncate(e.getIn().getBody()));
+        }
         headers.put("Content-Type", APPLICATION_TYPE);
-        headers.putAll(tenantService.getHeaders(e.getProperty(TENANT_ID, String.class)));
         if (isAmsLocalEnabled) {
             cxfrsUtil.sendInOut("cxfrs:bean:ams.local.loan", e, headers, e.getIn().getBody());
         } else {
             logger.info("-------------- Calling Mock Loan repayment APIs --------------");
             headers.put(HTTP_PATH, mockServiceLoanRepaymentPath);
-            cxfrsUtil.sendInOut("cxfrs:bean:mock-service.local.loan", e, headers, e.getIn().getBody().toString());
+            cxfrsUtil.sendInOut("cxfrs:bean:mock-service.local.loan", e, headers, e.getIn().getBody());
         }
         // cxfrsUtil.sendInOut("cxfrs:bean:ams.local.loan", e, headers, e.getIn().getBody());
     }
@@ -147,24 +198,14 @@ public class AmsCommonService {
     }
 
     public void registerInteropIdentifier(Exchange e) {
-        Map<String, Object> headers = new HashMap<>();
-        headers.put(CXF_TRACE_HEADER, true);
-        headers.put(HTTP_METHOD, "POST");
-        headers.put(HTTP_PATH, amsInteropPartiesPath.replace("{idType}", e.getProperty(PARTY_ID_TYPE, String.class)).replace("{idValue}",
-                e.getProperty(PARTY_ID, String.class)));
+        Map<String, Object> headers = headers("POST", partiesPath(e), e.getProperty(TENANT_ID, String.class));
         headers.put("Content-Type", "application/json");
-        headers.putAll(tenantService.getHeaders(e.getProperty(TENANT_ID, String.class)));
         cxfrsUtil.sendInOut("cxfrs:bean:ams.local.interop", e, headers, e.getIn().getBody());
     }
 
     public void removeInteropIdentifier(Exchange e) {
-        Map<String, Object> headers = new HashMap<>();
-        headers.put(CXF_TRACE_HEADER, true);
-        headers.put(HTTP_METHOD, "DELETE");
-        headers.put(HTTP_PATH, amsInteropPartiesPath.replace("{idType}", e.getProperty(PARTY_ID_TYPE, String.class)).replace("{idValue}",
-                e.getProperty(PARTY_ID, String.class)));
+        Map<String, Object> headers = headers("DELETE", partiesPath(e), e.getProperty(TENANT_ID, String.class));
         headers.put("Content-Type", "application/json");
-        headers.putAll(tenantService.getHeaders(e.getProperty(TENANT_ID, String.class)));
         e.getIn().setBody(null);
         cxfrsUtil.sendInOut("cxfrs:bean:ams.local.interop", e, headers, null);
     }
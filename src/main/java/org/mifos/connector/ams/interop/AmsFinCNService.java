@@ -17,10 +17,15 @@ import java.util.Base64;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import javax.annotation.PostConstruct;
 import org.apache.camel.Exchange;
 import org.apache.camel.component.cxf.common.message.CxfConstants;
 import org.mifos.connector.ams.camel.cxfrs.CxfrsUtil;
-import org.mifos.connector.ams.tenant.TenantService;
+import org.mifos.connector.ams.utils.PathTemplate;
+import org.mifos.connector.common.ams.dto.Customer;
+import org.mifos.connector.common.ams.dto.LoginFineractCnResponseDTO;
+import org.mifos.connector.common.ams.dto.ProductDefinition;
+import org.mifos.connector.common.ams.dto.ProductInstance;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
@@ -42,49 +47,54 @@ public class AmsFinCNService extends AmsCommonService implements AmsService {
     @Value("${ams.local.auth.path}")
     private String amsLocalAuthPath;
 
-    @Autowired
-    private TenantService tenantService;
-
     @Autowired
     private CxfrsUtil cxfrsUtil;
 
+    private PathTemplate accountInstancesPath;
+    private PathTemplate accountDefinitionsPath;
+    private PathTemplate customerPath;
+
+    @PostConstruct
+    public void setupFinCNPaths() {
+        accountInstancesPath = PathTemplate.compile(amsAccountInstancesPath, "accountId");
+        accountDefinitionsPath = PathTemplate.compile(amsAccountDefinitionsPath, "definitionId");
+        customerPath = PathTemplate.compile(amsLocalCustomerPath, "customerIdentifier");
+    }
+
     public void getSavingsAccount(Exchange e) {
-        Map<String, Object> headers = new HashMap<>();
-        headers.put(CXF_TRACE_HEADER, true);
-        headers.put(HTTP_METHOD, "GET");
-        headers.put(HTTP_PATH, amsAccountInstancesPath.replace("{accountId}", e.getProperty(ACCOUNT_ID, String.class)));
-        headers.putAll(tenantService.getHeaders(e.getProperty(TENANT_ID, String.class)));
-        cxfrsUtil.sendInOut("cxfrs:bean:ams.local.account", e, headers, null);
+        Map<String, Object> headers = headers("GET", accountInstancesPath.expand(e.getProperty(ACCOUNT_ID, String.class)),
+                e.getProperty(TENANT_ID, String.class));
+        cxfrsUtil.sendRead("cxfrs:bean:ams.local.account", e, headers, ProductInstance.class);
     }
 
     public void getSavingsAccountDefiniton(Exchange e) {
-        Map<String, Object> headers = new HashMap<>();
-        headers.put(CXF_TRACE_HEADER, true);
-        headers.put(HTTP_METHOD, "GET");
-        headers.put(HTTP_PATH, amsAccountDefinitionsPath.replace("{definitionId}", e.getProperty(DEFINITON_ID, String.class)));
-        headers.putAll(tenantService.getHeaders(e.getProperty(TENANT_ID, String.class)));
-        cxfrsUtil.sendInOut("cxfrs:bean:ams.local.account", e, headers, null);
+        Map<String, Object> headers = headers("GET", accountDefinitionsPath.expand(e.getProperty(DEFINITON_ID, String.class)),
+                e.getProperty(TENANT_ID, String.class));
+        cxfrsUtil.sendInOut("cxfrs:bean:ams.local.account", e, headers, null, ProductDefinition.class);
     }
 
     public void getSavingsAccounts(Exchange e) {
         throw new RuntimeException("getSavingsAccounts not implemented for FineractCN");
     }
 
+    public void findSavingsAccount(Exchange e) {
+        throw new RuntimeException("findSavingsAccount not implemented for FineractCN");
+    }
+
     public void getClient(Exchange e) {
-        Map<String, Object> headers = new HashMap<>();
-        headers.put(CXF_TRACE_HEADER, true);
-        headers.put(HTTP_METHOD, "GET");
-        headers.put(HTTP_PATH, amsLocalCustomerPath.replace("{customerIdentifier}", e.getProperty(CLIENT_ID, String.class)));
-        headers.putAll(tenantService.getHeaders(e.getProperty(TENANT_ID, String.class)));
-        cxfrsUtil.sendInOut("cxfrs:bean:ams.local.customer", e, headers, null);
+        String tenantId = e.getProperty(TENANT_ID, String.class);
+        String clientId = e.getProperty(CLIENT_ID, String.class);
+        if (cachedClient(e, tenantId, clientId)) {
+            return;
+        }
+        Map<String, Object> headers = headers("GET", customerPath.expand(clientId), tenantId);
+        cxfrsUtil.sendRead("cxfrs:bean:ams.local.customer", e, headers, Customer.class);
+        cacheClient(e, tenantId, clientId);
     }
 
     public void getClientByMobileNo(Exchange e) {
-        Map<String, Object> headers = new HashMap<>();
-        headers.put(CXF_TRACE_HEADER, true);
-        headers.put(HTTP_METHOD, "GET");
-        headers.put(HTTP_PATH, amsLocalCustomerPath.replace("{customerIdentifier}", e.getProperty(IDENTIFIER_ID, String.class)));
-        headers.putAll(tenantService.getHeaders(e.getProperty(TENANT_ID, String.class)));
+        Map<String, Object> headers = headers("GET", customerPath.expand(e.getProperty(IDENTIFIER_ID, String.class)),
+                e.getProperty(TENANT_ID, String.class));
         cxfrsUtil.sendInOut("cxfrs:bean:ams.local.customer", e, headers, null);
     }
 
@@ -102,7 +112,7 @@ public class AmsFinCNService extends AmsCommonService implements AmsService {
         queryMap.put("password", Base64.getEncoder().encodeToString(e.getProperty(LOGIN_PASSWORD, String.class).getBytes(UTF_8)));
         headers.put(CxfConstants.CAMEL_CXF_RS_QUERY_MAP, queryMap);
 
-        cxfrsUtil.sendInOut("cxfrs:bean:ams.local.auth", e, headers, null);
+        cxfrsUtil.sendInOut("cxfrs:bean:ams.local.auth", e, headers, null, LoginFineractCnResponseDTO.class);
     }
 
     public void getSavingsAccountsTransactions(Exchange e) {
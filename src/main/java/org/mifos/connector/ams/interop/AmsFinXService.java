@@ -1,18 +1,23 @@
 package org.mifos.connector.ams.interop;
 
-import static org.apache.camel.Exchange.HTTP_METHOD;
-import static org.apache.camel.Exchange.HTTP_PATH;
 import static org.mifos.connector.ams.camel.config.CamelProperties.CLIENT_ID;
 import static org.mifos.connector.ams.camel.config.CamelProperties.IDENTIFIER_ID;
-import static org.mifos.connector.ams.camel.cxfrs.HeaderBasedInterceptor.CXF_TRACE_HEADER;
+import static org.mifos.connector.ams.zeebe.ZeebeVariables.ACCOUNT;
 import static org.mifos.connector.ams.zeebe.ZeebeVariables.EXTERNAL_ACCOUNT_ID;
 import static org.mifos.connector.ams.zeebe.ZeebeVariables.TENANT_ID;
 
-import java.util.HashMap;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import javax.annotation.PostConstruct;
 import org.apache.camel.Exchange;
+import org.apache.camel.component.cxf.common.message.CxfConstants;
 import org.mifos.connector.ams.camel.cxfrs.CxfrsUtil;
-import org.mifos.connector.ams.tenant.TenantService;
+import org.mifos.connector.ams.utils.PathTemplate;
+import org.mifos.connector.common.ams.dto.ClientData;
+import org.mifos.connector.common.ams.dto.InteropAccountDTO;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
@@ -34,19 +39,35 @@ public class AmsFinXService extends AmsCommonService implements AmsService {
     @Value("${ams.local.account.savingsaccounts-path}")
     private String amsSavingsAccountsPath;
 
-    @Autowired
-    private TenantService tenantService;
+    @Value("${ams.local.account.savingsaccounts-page-size:200}")
+    private int savingsAccountsPageSize;
 
     @Autowired
     private CxfrsUtil cxfrsUtil;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AccountNumberIndex accountNumberIndex;
+
+    private PathTemplate interopAccountsPath;
+    private PathTemplate clientsPath;
+    private PathTemplate imagePath;
+    private String clientsSearchPath;
+
+    @PostConstruct
+    public void setupFinXPaths() {
+        interopAccountsPath = PathTemplate.compile(amsInteropAccountsPath, "externalAccountId");
+        clientsPath = PathTemplate.compile(amsClientsPath, "clientId");
+        imagePath = PathTemplate.compile(amsImagePath, "clientId");
+        clientsSearchPath = amsClientsPath.replace("/{clientId}", "") + "?mobileNo=";
+    }
+
     public void getSavingsAccount(Exchange e) {
-        Map<String, Object> headers = new HashMap<>();
-        headers.put(CXF_TRACE_HEADER, true);
-        headers.put(HTTP_METHOD, "GET");
-        headers.put(HTTP_PATH, amsInteropAccountsPath.replace("{externalAccountId}", e.getProperty(EXTERNAL_ACCOUNT_ID, String.class)));
-        headers.putAll(tenantService.getHeaders(e.getProperty(TENANT_ID, String.class)));
-        cxfrsUtil.sendInOut("cxfrs:bean:ams.local.interop", e, headers, null);
+        Map<String, Object> headers = headers("GET", interopAccountsPath.expand(e.getProperty(EXTERNAL_ACCOUNT_ID, String.class)),
+                e.getProperty(TENANT_ID, String.class));
+        cxfrsUtil.sendRead("cxfrs:bean:ams.local.interop", e, headers, InteropAccountDTO.class);
     }
 
     public void getSavingsAccountDefiniton(Exchange e) {
@@ -54,51 +75,88 @@ public class AmsFinXService extends AmsCommonService implements AmsService {
     }
 
     public void getSavingsAccounts(Exchange e) {
-        Map<String, Object> headers = new HashMap<>();
-        headers.put(CXF_TRACE_HEADER, true);
-        headers.put(HTTP_METHOD, "GET");
-        headers.put(HTTP_PATH, amsSavingsAccountsPath);
-        headers.putAll(tenantService.getHeaders(e.getProperty(TENANT_ID, String.class)));
+        Map<String, Object> headers = headers("GET", amsSavingsAccountsPath, e.getProperty(TENANT_ID, String.class));
         cxfrsUtil.sendInOut("cxfrs:bean:ams.local.account", e, headers, null);
     }
 
+    /**
+     * Looks up the account in the {@link AccountNumberIndex} first. On a miss reads the savingsaccounts of the tenant page
+     * by page in id order, up to the page with the account. Each page is scanned with a streaming parser that stops at the
+     * account, only the text of one page is held at a time.
+     */
+    public void findSavingsAccount(Exchange e) {
+        String accountNo = e.getProperty(ACCOUNT, String.class);
+        String tenantId = e.getProperty(TENANT_ID, String.class);
+        SavingsAccountSummary indexed = accountNumberIndex.get(tenantId, accountNo);
+        if (indexed != null) {
+            e.getIn().removeHeaders("*");
+            e.getIn().setHeader(Exchange.HTTP_RESPONSE_CODE, 200);
+            e.getIn().setBody(indexed);
+            return;
+        }
+        for (int offset = 0;; offset += savingsAccountsPageSize) {
+            Map<String, String> queryMap = new LinkedHashMap<>();
+            queryMap.put("offset", String.valueOf(offset));
+            queryMap.put("limit", String.valueOf(savingsAccountsPageSize));
+            queryMap.put("orderBy", "id");
+            queryMap.put("sortOrder", "ASC");
+            Map<String, Object> headers = headers("GET", amsSavingsAccountsPath, tenantId);
+            headers.put(CxfConstants.CAMEL_CXF_RS_QUERY_MAP, queryMap);
+            cxfrsUtil.sendRead("cxfrs:bean:ams.local.account", e, headers, null);
+            Integer responseCode = e.getIn().getHeader(Exchange.HTTP_RESPONSE_CODE, Integer.class);
+            if (e.getException() != null || responseCode == null || responseCode > 202) {
+                return;
+            }
+            // accounts read, totalFilteredRecords if the response has it
+            int[] page = {0, Integer.MAX_VALUE};
+            SavingsAccountSummary account;
+            try (JsonParser parser = objectMapper.getFactory().createParser(e.getIn().getBody(String.class))) {
+                account = SavingsAccountSummary.find(parser, accountNo, page);
+            } catch (IOException ex) {
+                e.setException(ex);
+                return;
+            }
+            if (account != null) {
+                accountNumberIndex.put(tenantId, account);
+                e.getIn().setBody(account);
+                return;
+            }
+            if (page[0] < savingsAccountsPageSize || offset + page[0] >= page[1]) {
+                e.getIn().setHeader(Exchange.HTTP_RESPONSE_CODE, 404);
+                e.getIn().setBody("Savings account " + accountNo + " not found");
+                return;
+            }
+        }
+    }
+
     public void getSavingsAccountsTransactions(Exchange e) {
-        Map<String, Object> headers = new HashMap<>();
-        headers.put(CXF_TRACE_HEADER, true);
-        headers.put(HTTP_METHOD, "GET");
-        headers.put(HTTP_PATH,
-                amsInteropAccountsPath.replace("{externalAccountId}", e.getProperty(EXTERNAL_ACCOUNT_ID, String.class) + "/transactions"));
-        headers.putAll(tenantService.getHeaders(e.getProperty(TENANT_ID, String.class)));
+        Map<String, Object> headers = headers("GET",
+                interopAccountsPath.expand(e.getProperty(EXTERNAL_ACCOUNT_ID, String.class) + "/transactions"),
+                e.getProperty(TENANT_ID, String.class));
         cxfrsUtil.sendInOut("cxfrs:bean:ams.local.account", e, headers, null);
     }
 
     public void getClient(Exchange e) {
-        Map<String, Object> headers = new HashMap<>();
-        headers.put(CXF_TRACE_HEADER, true);
-        headers.put(HTTP_METHOD, "GET");
-        headers.put(HTTP_PATH, amsClientsPath.replace("{clientId}", e.getProperty(CLIENT_ID, String.class)));
-        headers.putAll(tenantService.getHeaders(e.getProperty(TENANT_ID, String.class)));
-        cxfrsUtil.sendInOut("cxfrs:bean:ams.local.customer", e, headers, null);
+        String tenantId = e.getProperty(TENANT_ID, String.class);
+        String clientId = e.getProperty(CLIENT_ID, String.class);
+        if (cachedClient(e, tenantId, clientId)) {
+            return;
+        }
+        Map<String, Object> headers = headers("GET", clientsPath.expand(clientId), tenantId);
+        cxfrsUtil.sendRead("cxfrs:bean:ams.local.customer", e, headers, ClientData.class);
+        cacheClient(e, tenantId, clientId);
     }
 
     public void getClientImage(Exchange e) {
-        Map<String, Object> headers = new HashMap<>();
-        headers.put(CXF_TRACE_HEADER, true);
-        headers.put(HTTP_METHOD, "GET");
-        headers.put(HTTP_PATH, amsImagePath.replace("{clientId}", e.getProperty(CLIENT_ID, String.class)));
-        headers.putAll(tenantService.getHeaders(e.getProperty(TENANT_ID, String.class)));
+        Map<String, Object> headers = headers("GET", imagePath.expand(e.getProperty(CLIENT_ID, String.class)),
+                e.getProperty(TENANT_ID, String.class));
         cxfrsUtil.sendInOut("cxfrs:bean:ams.local.customer.image", e, headers, null);
     }
 
     @Override
     public void getClientByMobileNo(Exchange e) {
-        Map<String, Object> headers = new HashMap<>();
-        headers.put(CXF_TRACE_HEADER, true);
-        headers.put(HTTP_METHOD, "GET");
-        String path = amsClientsPath.replace("/{clientId}", "");
-        path += "?mobileNo=" + e.getProperty(IDENTIFIER_ID, String.class);
-        headers.put(HTTP_PATH, path);
-        headers.putAll(tenantService.getHeaders(e.getProperty(TENANT_ID, String.class)));
+        Map<String, Object> headers = headers("GET", clientsSearchPath + e.getProperty(IDENTIFIER_ID, String.class),
+                e.getProperty(TENANT_ID, String.class));
         cxfrsUtil.sendInOut("cxfrs:bean:ams.local.customer", e, headers, null);
     }
 
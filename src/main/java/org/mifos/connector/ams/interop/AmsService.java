@@ -26,6 +26,12 @@ public interface AmsService {
 
     void getSavingsAccounts(Exchange e);
 
+    /**
+     * Looks up the savings account with the account number of the ACCOUNT property, sets a {@link SavingsAccountSummary}
+     * body or a 404 response code if there is none.
+     */
+    void findSavingsAccount(Exchange e);
+
     void getClient(Exchange e);
 
     void getClientByMobileNo(Exchange e);
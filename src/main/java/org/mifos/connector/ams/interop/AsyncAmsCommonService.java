@@ -0,0 +1,144 @@
+package org.mifos.connector.ams.interop;
+
+import static org.apache.camel.Exchange.HTTP_METHOD;
+import static org.apache.camel.Exchange.HTTP_PATH;
+import static org.mifos.connector.ams.camel.cxfrs.HeaderBasedInterceptor.CXF_TRACE_HEADER;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import javax.annotation.PostConstruct;
+import org.apache.camel.component.cxf.common.message.CxfConstants;
+import org.mifos.connector.ams.camel.cxfrs.CxfrsUtil;
+import org.mifos.connector.ams.tenant.TenantService;
+import org.mifos.connector.ams.transport.AmsResponse;
+import org.mifos.connector.ams.utils.PathTemplate;
+import org.mifos.connector.ams.zeebe.JobMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+
+public abstract class AsyncAmsCommonService implements AsyncAmsService {
+
+    @Value("${ams.local.interop.parties-path}")
+    private String amsInteropPartiesPath;
+
+    @Value("${ams.local.interop.transfers-path}")
+    private String amsInteropTransfersPath;
+
+    @Value("${ams.local.loan.repayment-path}")
+    private String amsLoanRepaymentPath;
+
+    @Autowired
+    private TenantService tenantService;
+
+    @Autowired
+    private CxfrsUtil cxfrsUtil;
+
+    @Autowired
+    protected ObjectMapper objectMapper;
+
+    private PathTemplate interopPartiesPath;
+    private PathTemplate loanRepaymentPath;
+
+    @PostConstruct
+    public void setupPaths() {
+        interopPartiesPath = PathTemplate.compile(amsInteropPartiesPath, "idType", "idValue");
+        loanRepaymentPath = PathTemplate.compile(amsLoanRepaymentPath, "accountNumber");
+    }
+
+    @Override
+    public CompletionStage<AmsResponse> getExternalAccount(String tenantId, String partyIdType, String partyId) {
+        return read(JobMetrics.currentJobType(), tenantId, "cxfrs:bean:ams.local.interop", interopPartiesPath.expand(partyIdType, partyId));
+    }
+
+    @Override
+    public CompletionStage<AmsResponse> getSavingsAccount(String tenantId, String accountId) {
+        return getSavingsAccount(JobMetrics.currentJobType(), tenantId, accountId);
+    }
+
+    @Override
+    public CompletionStage<AmsResponse> getClient(String tenantId, String clientId) {
+        return getClient(JobMetrics.currentJobType(), tenantId, clientId);
+    }
+
+    @Override
+    public CompletionStage<AmsResponse> sendTransfer(String tenantId, String transferAction, String body) {
+        Map<String, String> queryMap = new LinkedHashMap<>();
+        queryMap.put("action", transferAction);
+        return send(JobMetrics.currentJobType(), tenantId, "cxfrs:bean:ams.local.interop", "POST", amsInteropTransfersPath, queryMap,
+                body);
+    }
+
+    @Override
+    public CompletionStage<AmsResponse> repayLoan(String tenantId, String accountNumber, String body) {
+        return send(JobMetrics.currentJobType(), tenantId, "cxfrs:bean:ams.local.loan", "POST",
+                loanRepaymentPath.expand(accountNumber), null, body);
+    }
+
+    @Override
+    public CompletionStage<AmsResponse> getParty(String tenantId, String partyIdType, String partyId) {
+        // the stages run on the threads of the http client, the job type is captured for the metrics of the later calls
+        String jobType = JobMetrics.currentJobType();
+        return getExternalAccount(tenantId, partyIdType, partyId).thenCompose(account -> {
+            String accountId = account.isSuccessful() ? field(account, "accountId") : null;
+            if (accountId == null) {
+                return CompletableFuture.completedFuture(account);
+            }
+            return getSavingsAccount(jobType, tenantId, accountId).thenCompose(savingsAccount -> {
+                if (!savingsAccount.isSuccessful()) {
+                    return CompletableFuture.completedFuture(savingsAccount);
+                }
+                return getClient(jobType, tenantId, clientId(savingsAccount));
+            });
+        });
+    }
+
+    protected abstract CompletionStage<AmsResponse> getSavingsAccount(String jobType, String tenantId, String accountId);
+
+    protected abstract CompletionStage<AmsResponse> getClient(String jobType, String tenantId, String clientId);
+
+    /**
+     * @return the client id of a successful {@link #getSavingsAccount(String, String)} response
+     */
+    protected abstract String clientId(AmsResponse savingsAccount);
+
+    protected CompletionStage<AmsResponse> send(String jobType, String tenantId, String endpoint, String method, String path,
+            Map<String, String> queryMap, String body) {
+        return cxfrsUtil.sendAsync(endpoint, jobType, tenantId, headers(tenantId, method, path, queryMap, body != null), body);
+    }
+
+    /**
+     * Sends an idempotent GET, hedged when ams.local.hedging is enabled.
+     */
+    protected CompletionStage<AmsResponse> read(String jobType, String tenantId, String endpoint, String path) {
+        return cxfrsUtil.sendReadAsync(endpoint, jobType, tenantId, headers(tenantId, "GET", path, null, false));
+    }
+
+    private Map<String, Object> headers(String tenantId, String method, String path, Map<String, String> queryMap, boolean hasBody) {
+        Map<String, Object> headers = new HashMap<>();
+        headers.putAll(tenantService.getHeaders(tenantId));
+        headers.put(CXF_TRACE_HEADER, true);
+        headers.put(HTTP_METHOD, method);
+        headers.put(HTTP_PATH, path);
+        if (queryMap != null) {
+            headers.put(CxfConstants.CAMEL_CXF_RS_QUERY_MAP, queryMap);
+        }
+        if (hasBody) {
+            headers.put("Content-Type", "application/json");
+        }
+        return headers;
+    }
+
+    protected String field(AmsResponse response, String name) {
+        try {
+            JsonNode value = objectMapper.readTree(response.getBodyBytes()).get(name);
+            return value == null || value.isNull() ? null : value.asText();
+        } catch (Exception e) {
+            throw new IllegalStateException("Unexpected Fineract response: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package org.mifos.connector.ams.interop;
+
+import java.util.concurrent.CompletionStage;
+import javax.annotation.PostConstruct;
+import org.mifos.connector.ams.transport.AmsResponse;
+import org.mifos.connector.ams.utils.PathTemplate;
+import org.mifos.connector.common.ams.dto.Customer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnExpression("'${ams.local.version}'.equals('cn')")
+public class AsyncAmsFinCNService extends AsyncAmsCommonService {
+
+    @Value("${ams.local.account.instances-path}")
+    private String amsAccountInstancesPath;
+
+    @Value("${ams.local.customer.path}")
+    private String amsLocalCustomerPath;
+
+    private PathTemplate accountInstancesPath;
+    private PathTemplate customerPath;
+
+    @PostConstruct
+    public void setupFinCNPaths() {
+        accountInstancesPath = PathTemplate.compile(amsAccountInstancesPath, "accountId");
+        customerPath = PathTemplate.compile(amsLocalCustomerPath, "customerIdentifier");
+    }
+
+    @Override
+    protected CompletionStage<AmsResponse> getSavingsAccount(String jobType, String tenantId, String accountId) {
+        return read(jobType, tenantId, "cxfrs:bean:ams.local.account", accountInstancesPath.expand(accountId));
+    }
+
+    @Override
+    protected CompletionStage<AmsResponse> getClient(String jobType, String tenantId, String clientId) {
+        return read(jobType, tenantId, "cxfrs:bean:ams.local.customer", customerPath.expand(clientId));
+    }
+
+    @Override
+    protected String clientId(AmsResponse savingsAccount) {
+        return field(savingsAccount, "customerIdentifier");
+    }
+
+    @Override
+    public Object parseClient(AmsResponse response) throws Exception {
+        return objectMapper.readValue(response.getBodyBytes(), Customer.class);
+    }
+}
@@ -0,0 +1,50 @@
+package org.mifos.connector.ams.interop;
+
+import java.util.concurrent.CompletionStage;
+import javax.annotation.PostConstruct;
+import org.mifos.connector.ams.transport.AmsResponse;
+import org.mifos.connector.ams.utils.PathTemplate;
+import org.mifos.connector.common.ams.dto.ClientData;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnExpression("'${ams.local.version}'.equals('1.2')")
+public class AsyncAmsFinXService extends AsyncAmsCommonService {
+
+    @Value("${ams.local.interop.accounts-path}")
+    private String amsInteropAccountsPath;
+
+    @Value("${ams.local.customer.path}")
+    private String amsClientsPath;
+
+    private PathTemplate interopAccountsPath;
+    private PathTemplate clientsPath;
+
+    @PostConstruct
+    public void setupFinXPaths() {
+        interopAccountsPath = PathTemplate.compile(amsInteropAccountsPath, "externalAccountId");
+        clientsPath = PathTemplate.compile(amsClientsPath, "clientId");
+    }
+
+    @Override
+    protected CompletionStage<AmsResponse> getSavingsAccount(String jobType, String tenantId, String accountId) {
+        return read(jobType, tenantId, "cxfrs:bean:ams.local.interop", interopAccountsPath.expand(accountId));
+    }
+
+    @Override
+    protected CompletionStage<AmsResponse> getClient(String jobType, String tenantId, String clientId) {
+        return read(jobType, tenantId, "cxfrs:bean:ams.local.customer", clientsPath.expand(clientId));
+    }
+
+    @Override
+    protected String clientId(AmsResponse savingsAccount) {
+        return field(savingsAccount, "clientId");
+    }
+
+    @Override
+    public Object parseClient(AmsResponse response) throws Exception {
+        return objectMapper.readValue(response.getBodyBytes(), ClientData.class);
+    }
+}
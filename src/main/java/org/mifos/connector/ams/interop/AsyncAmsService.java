@@ -0,0 +1,33 @@
+package org.mifos.connector.ams.interop;
+
+import java.util.concurrent.CompletionStage;
+import org.mifos.connector.ams.transport.AmsResponse;
+
+/**
+ * Non blocking variant of {@link AmsService}. Calls take their parameters instead of reading them from an exchange and
+ * return the Fineract response once it arrives, so multi step flows chain without holding a thread per request. Use
+ * {@link AmsResponse#applyTo(org.apache.camel.Exchange)} to hand a response to the camel processors.
+ */
+public interface AsyncAmsService {
+
+    CompletionStage<AmsResponse> getExternalAccount(String tenantId, String partyIdType, String partyId);
+
+    CompletionStage<AmsResponse> getSavingsAccount(String tenantId, String accountId);
+
+    CompletionStage<AmsResponse> getClient(String tenantId, String clientId);
+
+    CompletionStage<AmsResponse> sendTransfer(String tenantId, String transferAction, String body);
+
+    CompletionStage<AmsResponse> repayLoan(String tenantId, String accountNumber, String body);
+
+    /**
+     * Looks up the client of a party: external account, savings account, then client. Completes with the first response
+     * that was no success, or with the client.
+     */
+    CompletionStage<AmsResponse> getParty(String tenantId, String partyIdType, String partyId);
+
+    /**
+     * @return the client of a successful {@link #getClient(String, String)} response, as the get-party route unmarshals it
+     */
+    Object parseClient(AmsResponse response) throws Exception;
+}
@@ -0,0 +1,116 @@
+package org.mifos.connector.ams.interop;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import javax.annotation.PostConstruct;
+import org.mifos.connector.ams.utils.ExpiringCache;
+import org.mifos.connector.common.ams.dto.ClientData;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fineract clients ({@link ClientData} or Customer) by tenant and client id, with an index of the FineractX clients by
+ * mobile number, and the serialized party responses of party lookups by tenant, identifier type and identifier. Cached
+ * clients are shared between callers and must not be modified. Entries are evicted through /actuator/clientcache.
+ */
+@Component
+public class ClientCache {
+
+    public static final String CACHE_METRIC = "ams.cache.client";
+    public static final String PARTY_RESPONSE_METRIC = "ams.cache.party.response";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${cache.client.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cache.client.max-size:100000}")
+    private int maxSize;
+
+    @Value("${cache.client.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    @Value("${cache.client.party-response-ttl-seconds:300}")
+    private long partyResponseTtlSeconds;
+
+    private ExpiringCache<String, Object> clients;
+    private ExpiringCache<String, String> clientIdsByMobileNo;
+    private ExpiringCache<String, String> partyResponses;
+
+    @PostConstruct
+    public void setup() {
+        clients = new ExpiringCache<>(maxSize, ttlSeconds * 1000);
+        clientIdsByMobileNo = new ExpiringCache<>(maxSize, ttlSeconds * 1000);
+        partyResponses = new ExpiringCache<>(maxSize, partyResponseTtlSeconds * 1000);
+        registerMetrics(CACHE_METRIC, clients);
+        registerMetrics(PARTY_RESPONSE_METRIC, partyResponses);
+    }
+
+    private void registerMetrics(String name, ExpiringCache<?, ?> cache) {
+        FunctionCounter.builder(name + ".requests", cache, ExpiringCache::hits).tag("result", "hit").register(meterRegistry);
+        FunctionCounter.builder(name + ".requests", cache, ExpiringCache::misses).tag("result", "miss").register(meterRegistry);
+        Gauge.builder(name + ".size", cache, ExpiringCache::size).register(meterRegistry);
+    }
+
+    public Object getClient(String tenant, String clientId) {
+        return enabled ? clients.get(tenant + ":" + clientId) : null;
+    }
+
+    public void putClient(String tenant, String clientId, Object client) {
+        if (!enabled) {
+            return;
+        }
+        clients.put(tenant + ":" + clientId, client);
+        if (client instanceof ClientData && ((ClientData) client).getMobileNo() != null) {
+            clientIdsByMobileNo.put(tenant + ":" + ((ClientData) client).getMobileNo(), clientId);
+        }
+    }
+
+    public String getPartyResponse(String tenant, String partyIdType, String partyId) {
+        return enabled ? partyResponses.get(partyKey(tenant, partyIdType, partyId)) : null;
+    }
+
+    public void putPartyResponse(String tenant, String partyIdType, String partyId, String partyResponse) {
+        if (enabled) {
+            partyResponses.put(partyKey(tenant, partyIdType, partyId), partyResponse);
+        }
+    }
+
+    public void evictClient(String tenant, String clientId) {
+        clients.invalidate(tenant + ":" + clientId);
+    }
+
+    /**
+     * Evicts the client with the mobile number and the party response of the number as MSISDN.
+     */
+    public void evictMobileNo(String tenant, String mobileNo) {
+        String clientId = clientIdsByMobileNo.get(tenant + ":" + mobileNo);
+        if (clientId != null) {
+            clientIdsByMobileNo.invalidate(tenant + ":" + mobileNo);
+            evictClient(tenant, clientId);
+        }
+        evictPartyResponse(tenant, "MSISDN", mobileNo);
+    }
+
+    public void evictPartyResponse(String tenant, String partyIdType, String partyId) {
+        partyResponses.invalidate(partyKey(tenant, partyIdType, partyId));
+    }
+
+    public void clear() {
+        clients.clear();
+        clientIdsByMobileNo.clear();
+        partyResponses.clear();
+    }
+
+    public Map<String, Integer> sizes() {
+        return Map.of("clients", clients.size(), "mobileNumbers", clientIdsByMobileNo.size(), "partyResponses", partyResponses.size());
+    }
+
+    private static String partyKey(String tenant, String partyIdType, String partyId) {
+        return tenant + ":" + partyIdType + ":" + partyId;
+    }
+}
@@ -0,0 +1,46 @@
+package org.mifos.connector.ams.interop;
+
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts cached clients and party responses, DELETE /actuator/clientcache?tenant=...&amp;clientId=... evicts a client,
+ * &amp;mobileNo=... a client by mobile number and its MSISDN party response, &amp;partyIdType=...&amp;partyId=... a party
+ * response. Without tenant everything is evicted.
+ */
+@Component
+@Endpoint(id = "clientcache")
+public class ClientCacheEndpoint {
+
+    @Autowired
+    private ClientCache clientCache;
+
+    @ReadOperation
+    public Map<String, Integer> sizes() {
+        return clientCache.sizes();
+    }
+
+    @DeleteOperation
+    public Map<String, Integer> evict(@Nullable String tenant, @Nullable String clientId, @Nullable String mobileNo,
+            @Nullable String partyIdType, @Nullable String partyId) {
+        if (tenant == null) {
+            clientCache.clear();
+            return sizes();
+        }
+        if (clientId != null) {
+            clientCache.evictClient(tenant, clientId);
+        }
+        if (mobileNo != null) {
+            clientCache.evictMobileNo(tenant, mobileNo);
+        }
+        if (partyIdType != null && partyId != null) {
+            clientCache.evictPartyResponse(tenant, partyIdType, partyId);
+        }
+        return sizes();
+    }
+}
@@ -1,6 +1,5 @@
 package org.mifos.connector.ams.interop;
 
-import static org.mifos.connector.ams.camel.config.CamelProperties.ZEEBE_JOB_KEY;
 import static org.mifos.connector.ams.zeebe.ZeebeVariables.PARTY_ID;
 import static org.mifos.connector.ams.zeebe.ZeebeVariables.PARTY_ID_TYPE;
 import static org.mifos.connector.ams.zeebe.ZeebeVariables.PAYEE_PARTY_RESPONSE;
@@ -8,7 +7,6 @@ import static org.mifos.connector.ams.zeebe.ZeebeVariables.TENANT_ID;
 import static org.mifos.connector.common.ams.dto.LegalForm.PERSON;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import io.camunda.zeebe.client.ZeebeClient;
 import java.util.HashMap;
 import java.util.Map;
 import org.apache.camel.Exchange;
@@ -16,6 +14,7 @@ import org.apache.camel.Processor;
 import org.mifos.connector.ams.errorhandler.ErrorTranslator;
 import org.mifos.connector.ams.properties.TenantProperties;
 import org.mifos.connector.ams.utils.Utils;
+import org.mifos.connector.ams.zeebe.ZeebeCompletionService;
 import org.mifos.connector.common.ams.dto.ClientData;
 import org.mifos.connector.common.ams.dto.Customer;
 import org.mifos.connector.common.ams.dto.EnumOptionData;
@@ -46,12 +45,15 @@ public class ClientResponseProcessor implements Processor {
     @Autowired
     private ObjectMapper objectMapper;
 
-    @Autowired(required = false)
-    private ZeebeClient zeebeClient;
+    @Autowired
+    private ZeebeCompletionService completionService;
 
     @Autowired
     private ErrorTranslator errorTranslator;
 
+    @Autowired
+    private ClientCache clientCache;
+
     @Override
     public void process(Exchange exchange) throws Exception {
         Integer responseCode = exchange.getIn().getHeader(Exchange.HTTP_RESPONSE_CODE, Integer.class);
@@ -62,7 +64,7 @@ public class ClientResponseProcessor implements Processor {
 
             Map<String, Object> variables = Utils.getDefaultZeebeErrorVariable(exchange, errorTranslator);
             logger.info("Setting error info: {}", variables);
-            zeebeClient.newCompleteCommand(exchange.getProperty(ZEEBE_JOB_KEY, Long.class)).variables(variables).send();
+            completionService.complete(exchange, variables);
         } else {
             Party mojaloopParty = new Party(new PartyIdInfo(IdentifierType.valueOf(partyIdType), partyId, null,
                     tenantProperties.getTenant(exchange.getProperty(TENANT_ID, String.class)).getFspId()), null, null, null);
@@ -101,9 +103,11 @@ public class ClientResponseProcessor implements Processor {
                 }
             }
 
+            String partyResponse = objectMapper.writeValueAsString(mojaloopParty);
+            clientCache.putPartyResponse(exchange.getProperty(TENANT_ID, String.class), partyIdType, partyId, partyResponse);
             Map<String, Object> variables = new HashMap<>();
-            variables.put(PAYEE_PARTY_RESPONSE, objectMapper.writeValueAsString(mojaloopParty));
-            zeebeClient.newCompleteCommand(exchange.getProperty(ZEEBE_JOB_KEY, Long.class)).variables(variables).send();
+            variables.put(PAYEE_PARTY_RESPONSE, partyResponse);
+            completionService.complete(exchange, variables);
         }
     }
 }
@@ -1,7 +1,6 @@
 package org.mifos.connector.ams.interop;
 
 import static org.mifos.connector.ams.camel.config.CamelProperties.CONTINUE_PROCESSING;
-import static org.mifos.connector.ams.camel.config.CamelProperties.ZEEBE_JOB_KEY;
 import static org.mifos.connector.ams.zeebe.ZeebeVariables.ACCOUNT;
 import static org.mifos.connector.ams.zeebe.ZeebeVariables.ACCOUNT_CURRENCY;
 import static org.mifos.connector.ams.zeebe.ZeebeVariables.ERROR_INFORMATION;
@@ -11,11 +10,11 @@ import static org.mifos.connector.ams.zeebe.ZeebeVariables.PARTY_ID_TYPE;
 import static org.mifos.connector.common.camel.ErrorHandlerRouteBuilder.createError;
 import static org.mifos.connector.common.mojaloop.type.ErrorCode.INTERNAL_SERVER_ERROR;
 
-import io.camunda.zeebe.client.ZeebeClient;
 import java.util.HashMap;
 import java.util.Map;
 import org.apache.camel.Exchange;
 import org.apache.camel.Processor;
+import org.mifos.connector.ams.zeebe.ZeebeCompletionService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -31,8 +30,8 @@ public class InteropPartyResponseProcessor implements Processor {
     @Value("${ams.local.version}")
     private String amsVersion;
 
-    @Autowired(required = false)
-    private ZeebeClient zeebeClient;
+    @Autowired
+    private ZeebeCompletionService completionService;
 
     @Override
     public void process(Exchange e) {
@@ -56,7 +55,7 @@ public class InteropPartyResponseProcessor implements Processor {
         Boolean continueProcessing = e.getProperty(CONTINUE_PROCESSING, Boolean.class);
         if (isRequestFailed || continueProcessing == null || !continueProcessing) {
             variables.put(ACCOUNT_CURRENCY, e.getProperty(ACCOUNT_CURRENCY, String.class));
-            zeebeClient.newCompleteCommand(e.getProperty(ZEEBE_JOB_KEY, Long.class)).variables(variables).send();
+            completionService.complete(e, variables);
             if (isRequestFailed) {
                 e.setRouteStop(true);
             }
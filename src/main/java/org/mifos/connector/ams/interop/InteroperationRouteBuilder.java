@@ -1,8 +1,5 @@
 package org.mifos.connector.ams.interop;
 
-import static java.util.Spliterator.ORDERED;
-import static java.util.Spliterators.spliteratorUnknownSize;
-import static java.util.stream.StreamSupport.stream;
 import static org.mifos.connector.ams.camel.config.CamelProperties.CLIENT_ID;
 import static org.mifos.connector.ams.camel.config.CamelProperties.CONTINUE_PROCESSING;
 import static org.mifos.connector.ams.camel.config.CamelProperties.DEFINITON_ID;
@@ -13,7 +10,7 @@ import static org.mifos.connector.ams.camel.config.CamelProperties.PROCESS_TYPE;
 import static org.mifos.connector.ams.camel.config.CamelProperties.TRANSACTION_ROLE;
 import static org.mifos.connector.ams.camel.config.CamelProperties.TRANSFER_ACTION;
 import static org.mifos.connector.ams.camel.config.CamelProperties.X_CALLBACKURL;
-import static org.mifos.connector.ams.camel.config.CamelProperties.ZEEBE_JOB_KEY;
+import static org.mifos.connector.ams.logging.HotPathLogging.PAYLOADS;
 import static org.mifos.connector.ams.zeebe.ZeebeVariables.ACCOUNT;
 import static org.mifos.connector.ams.zeebe.ZeebeVariables.ACCOUNT_CURRENCY;
 import static org.mifos.connector.ams.zeebe.ZeebeVariables.ACCOUNT_ID;
@@ -34,10 +31,8 @@ import static org.mifos.connector.ams.zeebe.ZeebeVariables.TRANSFER_PREPARE_FAIL
 import static org.mifos.connector.common.ams.dto.TransferActionType.CREATE;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import io.camunda.zeebe.client.ZeebeClient;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Optional;
 import java.util.UUID;
 import org.apache.camel.Exchange;
 import org.apache.camel.LoggingLevel;
@@ -45,14 +40,13 @@ import org.apache.camel.Processor;
 import org.apache.camel.model.dataformat.JsonLibrary;
 import org.json.JSONObject;
 import org.mifos.connector.ams.errorhandler.ErrorTranslator;
+import org.mifos.connector.ams.logging.HotPathLogging;
 import org.mifos.connector.ams.tenant.TenantNotExistException;
 import org.mifos.connector.ams.utils.Utils;
+import org.mifos.connector.ams.zeebe.ZeebeCompletionService;
 import org.mifos.connector.ams.zeebe.ZeebeUtil;
-import org.mifos.connector.common.ams.dto.ClientData;
-import org.mifos.connector.common.ams.dto.Customer;
 import org.mifos.connector.common.ams.dto.InteropAccountDTO;
 import org.mifos.connector.common.ams.dto.LoanRepaymentDTO;
-import org.mifos.connector.common.ams.dto.LoginFineractCnResponseDTO;
 import org.mifos.connector.common.ams.dto.PartyFspResponseDTO;
 import org.mifos.connector.common.ams.dto.ProductDefinition;
 import org.mifos.connector.common.ams.dto.ProductInstance;
@@ -77,7 +71,7 @@ public class InteroperationRouteBuilder extends ErrorHandlerRouteBuilder {
     private String amsVersion;
 
     @Autowired
-    private Processor pojoToString;
+    private Processor pojoToJson;
 
     @Autowired(required = false)
     private AmsService amsService;
@@ -104,11 +98,20 @@ public class InteroperationRouteBuilder extends ErrorHandlerRouteBuilder {
     private ObjectMapper objectMapper;
 
     @Autowired
-    private ZeebeClient zeebeClient;
+    private ZeebeCompletionService completionService;
 
     @Autowired
     private ErrorTranslator errorTranslator;
 
+    @Autowired
+    private HotPathLogging hotPathLogging;
+
+    @Autowired
+    private PartyAccountCache partyAccountCache;
+
+    @Autowired
+    private ClientCache clientCache;
+
     private Logger logger = LoggerFactory.getLogger(this.getClass());
     private String callbackUrl;
     private String fineractResponseBody;
@@ -133,20 +136,24 @@ public class InteroperationRouteBuilder extends ErrorHandlerRouteBuilder {
                                 + PARTY_ID + "}")
                 // .process(amsService::getExternalAccount)
                 .process(exchange -> {
-                    try {
-                        amsService.getExternalAccount(exchange);
-                    } catch (TenantNotExistException e) {
-                        log.debug(e.getMessage());
-                        exchange.setProperty(ERROR_CODE, PaymentHubError.PayeeFspNotConfigured.getErrorCode());
-                        exchange.setProperty(ERROR_INFORMATION, PaymentHubError.PayeeFspNotConfigured.getErrorDescription());
-                        exchange.setProperty(ERROR_PAYLOAD, PaymentHubError.PayeeFspNotConfigured.getErrorDescription());
-                        exchange.getIn().setHeader(Exchange.HTTP_RESPONSE_CODE, 404);
-                        exchange.setProperty(IS_ERROR_SET_MANUALLY, true);
+                    PartyAccountCache.Lookup cached = partyAccountCache.get(exchange);
+                    if (cached != null && cached.isNotConfigured()) {
+                        payeeFspNotConfigured(exchange);
+                    } else if (cached != null) {
+                        cached.applyTo(exchange);
+                    } else {
+                        try {
+                            amsService.getExternalAccount(exchange);
+                            partyAccountCache.put(exchange);
+                        } catch (TenantNotExistException e) {
+                            log.debug(e.getMessage());
+                            partyAccountCache.putNotConfigured(exchange);
+                            payeeFspNotConfigured(exchange);
+                        }
                     }
                 }).log("Response body from get-external-account").choice()
                 // check if http status code is <= 202
-                .when(e -> e.getIn().getHeader(Exchange.HTTP_RESPONSE_CODE, Integer.class) <= 202).unmarshal()
-                .json(JsonLibrary.Jackson, PartyFspResponseDTO.class)
+                .when(e -> e.getIn().getHeader(Exchange.HTTP_RESPONSE_CODE, Integer.class) <= 202)
                 .process(e -> e.setProperty(EXTERNAL_ACCOUNT_ID, e.getIn().getBody(PartyFspResponseDTO.class).getAccountId()))
                 .process(exchange -> {
                     PartyFspResponseDTO dto = exchange.getIn().getBody(PartyFspResponseDTO.class);
@@ -159,13 +166,13 @@ public class InteroperationRouteBuilder extends ErrorHandlerRouteBuilder {
 
         from("direct:send-local-quote").id("send-local-quote").to("direct:get-external-account")
                 .log(LoggingLevel.INFO, "Sending local quote request for transaction: ${exchangeProperty." + TRANSACTION_ID + "}")
-                .process(prepareLocalQuoteRequest).process(pojoToString).process(amsService::getLocalQuote).process(quoteResponseProcessor);
+                .process(prepareLocalQuoteRequest).process(pojoToJson).process(amsService::getLocalQuote).process(quoteResponseProcessor);
 
         from("direct:send-transfers").id("send-transfers")
                 .log(LoggingLevel.INFO,
                         "Sending transfer with action: ${exchangeProperty." + TRANSFER_ACTION + "} "
                                 + " for transaction: ${exchangeProperty." + TRANSACTION_ID + "}")
-                .to("direct:get-external-account").process(prepareTransferRequest).process(pojoToString).process(amsService::sendTransfer)
+                .to("direct:get-external-account").process(prepareTransferRequest).process(pojoToJson).process(amsService::sendTransfer)
                 .to("direct:error-handler") // this route will parse and set error field if exist
                 .log("Process type: ${exchangeProperty." + PROCESS_TYPE + "}").choice()
                 .when(exchange -> exchange.getProperty(PROCESS_TYPE) != null && exchange.getProperty(PROCESS_TYPE).equals("api"))
@@ -174,7 +181,7 @@ public class InteroperationRouteBuilder extends ErrorHandlerRouteBuilder {
                     if (statusCode > 202) {
                         Map<String, Object> variables = Utils.getDefaultZeebeErrorVariable(exchange, errorTranslator);
                         variables.put(FINERACT_RESPONSE_BODY, exchange.getIn().getBody(String.class));
-                        zeebeClient.newCompleteCommand(exchange.getProperty(ZEEBE_JOB_KEY, Long.class)).variables(variables).send();
+                        completionService.complete(exchange, variables);
 
                         logger.error("{}", variables.get(ERROR_INFORMATION));
                     } else {
@@ -184,9 +191,12 @@ public class InteroperationRouteBuilder extends ErrorHandlerRouteBuilder {
                         variables.put(TRANSFER_CREATE_FAILED, false);
                         variables.put("payeeTenantId", exchange.getProperty("payeeTenantId"));
                         variables.put(TRANSFER_CODE, responseJson.getString("transferCode"));
-                        logger.info("API call successful. Response Body: " + exchange.getIn().getBody(String.class));
+                        if (logger.isDebugEnabled() && hotPathLogging.sample(PAYLOADS)) {
+                            logger.debug("API call successful. Response Body: {}",
+                                    hotPathLogging.truncate(exchange.getIn().getBody(String.class)));
+                        }
                         variables.put(FINERACT_RESPONSE_BODY, exchange.getIn().getBody(String.class));
-                        zeebeClient.newCompleteCommand(exchange.getProperty(ZEEBE_JOB_KEY, Long.class)).variables(variables).send();
+                        completionService.complete(exchange, variables);
                     }
 
                     logger.info("End of process in send-transfers");
@@ -198,8 +208,10 @@ public class InteroperationRouteBuilder extends ErrorHandlerRouteBuilder {
                                 + " for transaction: ${exchangeProperty." + TRANSACTION_ID + "}")
                 .log("Process type: ${exchangeProperty." + PROCESS_TYPE + "}").process(exchange -> {
                     LoanRepaymentDTO loanRepaymentDTO = ZeebeUtil.setLoanRepaymentBody(exchange);
-                    String requestBody = objectMapper.writeValueAsString(loanRepaymentDTO);
-                    logger.debug("Request Body : {}", requestBody);
+                    byte[] requestBody = objectMapper.writeValueAsBytes(loanRepaymentDTO);
+                    if (logger.isDebugEnabled() && hotPathLogging.sample(PAYLOADS)) {
+                        logger.debug("Request Body : {}", hotPathLogging.truncate(requestBody));
+                    }
                     exchange.getIn().setBody(requestBody);
                     exchange.setProperty("accountNumber", exchange.getProperty(ACCOUNT_NUMBER));
                 }).process(amsService::repayLoan).to("direct:error-handler") // this route will parse and set error
@@ -211,7 +223,7 @@ public class InteroperationRouteBuilder extends ErrorHandlerRouteBuilder {
                     if (statusCode > 202) {
                         Map<String, Object> variables = Utils.getDefaultZeebeErrorVariable(exchange, errorTranslator);
                         variables.put(FINERACT_RESPONSE_BODY, exchange.getIn().getBody(String.class));
-                        zeebeClient.newCompleteCommand(exchange.getProperty(ZEEBE_JOB_KEY, Long.class)).variables(variables).send();
+                        completionService.complete(exchange, variables);
 
                         logger.error("{}", variables.get(ERROR_INFORMATION));
                     } else {
@@ -221,9 +233,12 @@ public class InteroperationRouteBuilder extends ErrorHandlerRouteBuilder {
                         variables.put(TRANSFER_CREATE_FAILED, false);
                         variables.put("payeeTenantId", exchange.getProperty("payeeTenantId"));
                         variables.put(TRANSFER_CODE, responseJson.getString("transferCode"));
-                        logger.info("API call successful. Response Body: " + exchange.getIn().getBody(String.class));
+                        if (logger.isDebugEnabled() && hotPathLogging.sample(PAYLOADS)) {
+                            logger.debug("API call successful. Response Body: {}",
+                                    hotPathLogging.truncate(exchange.getIn().getBody(String.class)));
+                        }
                         variables.put(FINERACT_RESPONSE_BODY, exchange.getIn().getBody(String.class));
-                        zeebeClient.newCompleteCommand(exchange.getProperty(ZEEBE_JOB_KEY, Long.class)).variables(variables).send();
+                        completionService.complete(exchange, variables);
                     }
 
                     logger.info("End of process in send-transfers-loan");
@@ -231,7 +246,7 @@ public class InteroperationRouteBuilder extends ErrorHandlerRouteBuilder {
 
         from("direct:fincn-oauth").id("fincn-oauth")
                 .log(LoggingLevel.INFO, "Fineract CN oauth request for tenant: ${exchangeProperty." + TENANT_ID + "}")
-                .process(amsService::login).unmarshal().json(JsonLibrary.Jackson, LoginFineractCnResponseDTO.class);
+                .process(amsService::login);
 
         // @formatter:off
         from("direct:get-party")
@@ -247,16 +262,12 @@ public class InteroperationRouteBuilder extends ErrorHandlerRouteBuilder {
                 .process(amsService::getSavingsAccount)
                 .choice()
                     .when(e -> "1.2".equals(amsVersion))
-                        .unmarshal().json(JsonLibrary.Jackson, InteropAccountDTO.class)
                         .process(e -> e.setProperty(CLIENT_ID, e.getIn().getBody(InteropAccountDTO.class).getClientId()))
                         .process(amsService::getClient)
-                        .unmarshal().json(JsonLibrary.Jackson, ClientData.class)
                     .endChoice()
                     .otherwise() // cn
-                        .unmarshal().json(JsonLibrary.Jackson, ProductInstance.class)
                         .process(e -> e.setProperty(CLIENT_ID, e.getIn().getBody(ProductInstance.class).getCustomerIdentifier()))
                         .process(amsService::getClient)
-                        .unmarshal().json(JsonLibrary.Jackson, Customer.class)
                     .endChoice()
                 .end()
                 .process(clientResponseProcessor);
@@ -276,26 +287,16 @@ public class InteroperationRouteBuilder extends ErrorHandlerRouteBuilder {
                 .end();
 
         from("direct:register-party-finx")
-                .process(amsService::getSavingsAccounts)
+                .process(amsService::findSavingsAccount)
                 .setProperty(CONTINUE_PROCESSING, constant(true))
-                .process(interopPartyResponseProcessor)
+                .process(interopPartyResponseProcessor) // also fails the registration of an account that does not exist
                 .process(e -> {
-                    Optional<Object> account = stream(spliteratorUnknownSize(// TODO this solution is potentially bad if there are too many accounts in the system
-                            new JSONObject(e.getIn().getBody(String.class)).getJSONArray("pageItems").iterator(),
-                            ORDERED), false)
-                            .filter(sa -> e.getProperty(ACCOUNT, String.class).equals(((JSONObject)sa).getString("accountNo")))
-                            .findFirst();
-                    if (!account.isPresent()) {
-                        e.getIn().setHeader(Exchange.HTTP_RESPONSE_CODE, 404);
-                    } else {
-                        JSONObject jsonAccount = (JSONObject)account.get();
-                        e.setProperty(ACCOUNT_ID, jsonAccount.getString("accountNo"));
-                        e.setProperty(ACCOUNT_CURRENCY, jsonAccount.getJSONObject("currency").getString("code"));
-                        e.setProperty(EXISTING_EXTERNAL_ACCOUNT_ID, jsonAccount.getString("externalId"));
-                        e.setProperty(INTEROP_ACCOUNT_TO_REGISTER, jsonAccount.getString("externalId"));
-                    }
+                    SavingsAccountSummary account = e.getIn().getBody(SavingsAccountSummary.class);
+                    e.setProperty(ACCOUNT_ID, account.getAccountNo());
+                    e.setProperty(ACCOUNT_CURRENCY, account.getCurrencyCode());
+                    e.setProperty(EXISTING_EXTERNAL_ACCOUNT_ID, account.getExternalId());
+                    e.setProperty(INTEROP_ACCOUNT_TO_REGISTER, account.getExternalId());
                 })
-                .process(interopPartyResponseProcessor)
                 .to("direct:get-external-account")
                 .choice()
                     .when(e -> e.getProperty(EXTERNAL_ACCOUNT_ID) == null) // identifier not registered to any account
@@ -318,11 +319,9 @@ public class InteroperationRouteBuilder extends ErrorHandlerRouteBuilder {
                 .process(amsService::getSavingsAccount)
                 .setProperty(CONTINUE_PROCESSING, constant(true))
                 .process(interopPartyResponseProcessor)
-                .unmarshal().json(JsonLibrary.Jackson, ProductInstance.class)
                 .process(e -> e.setProperty(DEFINITON_ID, e.getIn().getBody(ProductInstance.class).getProductIdentifier()))
                 .process(amsService::getSavingsAccountDefiniton)
                 .process(interopPartyResponseProcessor)
-                .unmarshal().json(JsonLibrary.Jackson, ProductDefinition.class)
                 .process(e -> e.setProperty(ACCOUNT_CURRENCY, e.getIn().getBody(ProductDefinition.class).getCurrency().getCode()))
                 .setProperty(INTEROP_ACCOUNT_TO_REGISTER, simple("${exchangeProperty." + ACCOUNT_ID + "}"))
                 .to("direct:get-external-account")
@@ -347,10 +346,10 @@ public class InteroperationRouteBuilder extends ErrorHandlerRouteBuilder {
             JSONObject request = new JSONObject();
             request.put("accountId", e.getProperty(INTEROP_ACCOUNT_TO_REGISTER));
             e.getIn().setBody(request.toString());
-        }).process(amsService::registerInteropIdentifier).process(interopPartyResponseProcessor);
+        }).process(amsService::registerInteropIdentifier).process(this::invalidateParty).process(interopPartyResponseProcessor);
 
         from("direct:remove-interop-identifier-from-account").id("remove-interop-identifier-from-account")
-                .process(amsService::removeInteropIdentifier).process(interopPartyResponseProcessor);
+                .process(amsService::removeInteropIdentifier).process(this::invalidateParty).process(interopPartyResponseProcessor);
 
         // Direct API to deposit PAYEE initiated money
         from("rest:POST:/transfer/deposit").log(LoggingLevel.INFO, "Deposit call: ${body}").unmarshal()
@@ -387,4 +386,21 @@ public class InteroperationRouteBuilder extends ErrorHandlerRouteBuilder {
                     exchange.setProperty("callbackSent", callbackSent);
                 });
     }
+
+    /**
+     * Forgets the cached account and party response of the party whose identifier was registered or removed.
+     */
+    private void invalidateParty(Exchange exchange) {
+        partyAccountCache.invalidate(exchange);
+        clientCache.evictPartyResponse(exchange.getProperty(TENANT_ID, String.class), exchange.getProperty(PARTY_ID_TYPE, String.class),
+                exchange.getProperty(PARTY_ID, String.class));
+    }
+
+    private static void payeeFspNotConfigured(Exchange exchange) {
+        exchange.setProperty(ERROR_CODE, PaymentHubError.PayeeFspNotConfigured.getErrorCode());
+        exchange.setProperty(ERROR_INFORMATION, PaymentHubError.PayeeFspNotConfigured.getErrorDescription());
+        exchange.setProperty(ERROR_PAYLOAD, PaymentHubError.PayeeFspNotConfigured.getErrorDescription());
+        exchange.getIn().setHeader(Exchange.HTTP_RESPONSE_CODE, 404);
+        exchange.setProperty(IS_ERROR_SET_MANUALLY, true);
+    }
 }
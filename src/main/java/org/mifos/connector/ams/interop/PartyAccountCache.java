@@ -0,0 +1,154 @@
+package org.mifos.connector.ams.interop;
+
+import static org.mifos.connector.ams.zeebe.ZeebeVariables.PARTY_ID;
+import static org.mifos.connector.ams.zeebe.ZeebeVariables.PARTY_ID_TYPE;
+import static org.mifos.connector.ams.zeebe.ZeebeVariables.TENANT_ID;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import org.apache.camel.Exchange;
+import org.mifos.connector.ams.utils.ExpiringCache;
+import org.mifos.connector.common.ams.dto.PartyFspResponseDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fineract party lookups of direct:get-external-account by tenant, identifier type and identifier. Accounts are kept for
+ * ttl-seconds, parties unknown to Fineract (404) and tenants not configured for negative-ttl-seconds. Registering or
+ * removing an identifier invalidates it right away. Cached responses are shared between callers and must not be
+ * modified.
+ */
+@Component
+public class PartyAccountCache {
+
+    public static final String CACHE_METRIC = "ams.cache.party.account";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${cache.party-account.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cache.party-account.max-size:100000}")
+    private int maxSize;
+
+    @Value("${cache.party-account.ttl-seconds:3600}")
+    private long ttlSeconds;
+
+    @Value("${cache.party-account.negative-ttl-seconds:30}")
+    private long negativeTtlSeconds;
+
+    private ExpiringCache<String, Lookup> accounts;
+    private ExpiringCache<String, Lookup> notFound;
+    private Timer age;
+
+    @PostConstruct
+    public void setup() {
+        accounts = new ExpiringCache<>(maxSize, ttlSeconds * 1000);
+        notFound = new ExpiringCache<>(maxSize, negativeTtlSeconds * 1000);
+        Gauge.builder(CACHE_METRIC + ".size", accounts, ExpiringCache::size).tag("kind", "account").register(meterRegistry);
+        Gauge.builder(CACHE_METRIC + ".size", notFound, ExpiringCache::size).tag("kind", "not-found").register(meterRegistry);
+        age = Timer.builder(CACHE_METRIC + ".age").description("Age of the lookups served from the cache").register(meterRegistry);
+    }
+
+    /**
+     * @return the cached lookup of the party of the exchange, null if Fineract has to be asked
+     */
+    public Lookup get(Exchange exchange) {
+        if (!enabled) {
+            return null;
+        }
+        String key = key(exchange);
+        Lookup lookup = accounts.get(key);
+        if (lookup == null) {
+            lookup = notFound.get(key);
+        }
+        String result = lookup == null ? "miss" : lookup.isFound() ? "hit" : "negative-hit";
+        Counter.builder(CACHE_METRIC + ".requests").tag("tenant", tenant(exchange)).tag("result", result).register(meterRegistry)
+                .increment();
+        if (lookup != null) {
+            age.record(System.currentTimeMillis() - lookup.storedAt, TimeUnit.MILLISECONDS);
+        }
+        return lookup;
+    }
+
+    /**
+     * Caches the response of the party lookup of the exchange, found accounts and 404 responses only.
+     */
+    public void put(Exchange exchange) {
+        if (!enabled) {
+            return;
+        }
+        Integer statusCode = exchange.getIn().getHeader(Exchange.HTTP_RESPONSE_CODE, Integer.class);
+        Object body = exchange.getIn().getBody();
+        if (statusCode != null && statusCode <= 202 && body instanceof PartyFspResponseDTO
+                && ((PartyFspResponseDTO) body).getAccountId() != null) {
+            accounts.put(key(exchange), new Lookup(statusCode, body));
+        } else if (statusCode != null && statusCode == 404) {
+            notFound.put(key(exchange), new Lookup(statusCode, exchange.getIn().getBody(String.class)));
+        }
+    }
+
+    public void putNotConfigured(Exchange exchange) {
+        if (enabled) {
+            notFound.put(key(exchange), new Lookup(0, null));
+        }
+    }
+
+    /**
+     * Forgets the party of the exchange, after its identifier was registered to or removed from an account.
+     */
+    public void invalidate(Exchange exchange) {
+        String key = key(exchange);
+        accounts.invalidate(key);
+        notFound.invalidate(key);
+        Counter.builder(CACHE_METRIC + ".invalidations").tag("tenant", tenant(exchange)).register(meterRegistry).increment();
+    }
+
+    private static String key(Exchange exchange) {
+        return exchange.getProperty(TENANT_ID, String.class) + ":" + exchange.getProperty(PARTY_ID_TYPE, String.class) + ":"
+                + exchange.getProperty(PARTY_ID, String.class);
+    }
+
+    private static String tenant(Exchange exchange) {
+        String tenant = exchange.getProperty(TENANT_ID, String.class);
+        return tenant != null ? tenant : "none";
+    }
+
+    public static final class Lookup {
+
+        private final int statusCode;
+        private final Object body;
+        private final long storedAt = System.currentTimeMillis();
+
+        private Lookup(int statusCode, Object body) {
+            this.statusCode = statusCode;
+            this.body = body;
+        }
+
+        public boolean isFound() {
+            return body instanceof PartyFspResponseDTO;
+        }
+
+        /**
+         * @return whether the lookup failed because the tenant is not configured
+         */
+        public boolean isNotConfigured() {
+            return statusCode == 0;
+        }
+
+        /**
+         * Sets the cached response on the IN message, as the Fineract call would.
+         */
+        public void applyTo(Exchange exchange) {
+            exchange.getIn().removeHeaders("*");
+            exchange.getIn().setHeader(Exchange.HTTP_RESPONSE_CODE, statusCode);
+            exchange.getIn().setBody(body);
+        }
+    }
+}
@@ -6,10 +6,10 @@ import static org.mifos.connector.ams.zeebe.ZeebeVariables.CHANNEL_REQUEST;
 import static org.mifos.connector.ams.zeebe.ZeebeVariables.EXTERNAL_ACCOUNT_ID;
 import static org.mifos.connector.ams.zeebe.ZeebeVariables.TRANSACTION_ID;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.UUID;
 import org.apache.camel.Exchange;
 import org.apache.camel.Processor;
+import org.mifos.connector.ams.zeebe.ChannelRequestCache;
 import org.mifos.connector.common.ams.dto.QuoteFspRequestDTO;
 import org.mifos.connector.common.channel.dto.TransactionChannelRequestDTO;
 import org.mifos.connector.common.mojaloop.dto.FspMoneyData;
@@ -23,12 +23,12 @@ import org.springframework.stereotype.Component;
 public class PrepareLocalQuoteRequest implements Processor {
 
     @Autowired
-    private ObjectMapper objectMapper;
+    private ChannelRequestCache channelRequestCache;
 
     @Override
     public void process(Exchange exchange) throws Exception {
-        TransactionChannelRequestDTO channelRequest = objectMapper.readValue(exchange.getProperty(CHANNEL_REQUEST, String.class),
-                TransactionChannelRequestDTO.class);
+        TransactionChannelRequestDTO channelRequest = channelRequestCache.get(exchange.getProperty(TRANSACTION_ID, String.class),
+                exchange.getProperty(CHANNEL_REQUEST, String.class));
 
         String requestCode = UUID.randomUUID().toString();
         String quoteId = UUID.randomUUID().toString();
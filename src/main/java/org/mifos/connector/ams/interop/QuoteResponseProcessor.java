@@ -1,7 +1,6 @@
 package org.mifos.connector.ams.interop;
 
 import static org.mifos.connector.ams.camel.config.CamelProperties.TRANSACTION_ROLE;
-import static org.mifos.connector.ams.camel.config.CamelProperties.ZEEBE_JOB_KEY;
 import static org.mifos.connector.ams.zeebe.ZeebeVariables.ERROR_INFORMATION;
 import static org.mifos.connector.ams.zeebe.ZeebeVariables.EXTERNAL_ACCOUNT_ID;
 import static org.mifos.connector.ams.zeebe.ZeebeVariables.LOCAL_QUOTE_FAILED;
@@ -14,11 +13,11 @@ import static org.mifos.connector.common.mojaloop.type.ErrorCode.PAYEE_FSP_REJEC
 import static org.mifos.connector.common.mojaloop.type.ErrorCode.PAYER_FSP_INSUFFICIENT_LIQUIDITY;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import io.camunda.zeebe.client.ZeebeClient;
 import java.util.HashMap;
 import java.util.Map;
 import org.apache.camel.Exchange;
 import org.apache.camel.Processor;
+import org.mifos.connector.ams.zeebe.ZeebeCompletionService;
 import org.mifos.connector.common.ams.dto.QuoteFspResponseDTO;
 import org.mifos.connector.common.mojaloop.type.TransactionRole;
 import org.slf4j.Logger;
@@ -32,8 +31,8 @@ public class QuoteResponseProcessor implements Processor {
 
     private Logger logger = LoggerFactory.getLogger(this.getClass());
 
-    @Autowired(required = false)
-    private ZeebeClient zeebeClient;
+    @Autowired
+    private ZeebeCompletionService completionService;
 
     @Autowired
     private ObjectMapper objectMapper;
@@ -41,7 +40,6 @@ public class QuoteResponseProcessor implements Processor {
     @Override
     public void process(Exchange exchange) throws Exception {
         Integer responseCode = exchange.getIn().getHeader(Exchange.HTTP_RESPONSE_CODE, Integer.class);
-        Long jobKey = exchange.getProperty(ZEEBE_JOB_KEY, Long.class);
         String transactionRole = exchange.getProperty(TRANSACTION_ROLE, String.class);
         if (responseCode > 202) {
             String errorMsg = String.format("Invalid responseCode %s for quote on %s side, transactionId: %s Message: %s", responseCode,
@@ -63,7 +61,7 @@ public class QuoteResponseProcessor implements Processor {
             variables.put(ERROR_INFORMATION, createError(errorCode, errorMsg).toString());
             variables.put(errorKey, true);
 
-            zeebeClient.newCompleteCommand(jobKey).variables(variables).send();
+            completionService.complete(exchange, variables);
         } else {
             Map<String, Object> variables = new HashMap<>();
             QuoteFspResponseDTO quoteResponse = objectMapper.readValue(exchange.getIn().getBody(String.class), QuoteFspResponseDTO.class);
@@ -74,7 +72,7 @@ public class QuoteResponseProcessor implements Processor {
             variables.put(TENANT_ID, exchange.getProperty(TENANT_ID));
             variables.put(transactionRole.equals(TransactionRole.PAYER.name()) ? LOCAL_QUOTE_FAILED : QUOTE_FAILED, false);
 
-            zeebeClient.newCompleteCommand(jobKey).variables(variables).send();
+            completionService.complete(exchange, variables);
         }
     }
 }
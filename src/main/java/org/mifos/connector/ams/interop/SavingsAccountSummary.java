@@ -0,0 +1,131 @@
+package org.mifos.connector.ams.interop;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.util.function.Predicate;
+
+/**
+ * Account number, external id, currency and status of a FineractX savings account, as needed for the interop party
+ * registration.
+ */
+public class SavingsAccountSummary {
+
+    private String accountNo;
+    private String externalId;
+    private String currencyCode;
+    private int statusId;
+
+    private SavingsAccountSummary() {}
+
+    SavingsAccountSummary(String accountNo, String externalId, String currencyCode, int statusId) {
+        this.accountNo = accountNo;
+        this.externalId = externalId;
+        this.currencyCode = currencyCode;
+        this.statusId = statusId;
+    }
+
+    public String getAccountNo() {
+        return accountNo;
+    }
+
+    public String getExternalId() {
+        return externalId;
+    }
+
+    public String getCurrencyCode() {
+        return currencyCode;
+    }
+
+    /**
+     * @return the id of the Fineract status, e.g. 300 for active, 0 if unknown
+     */
+    public int getStatusId() {
+        return statusId;
+    }
+
+    /**
+     * Reads the pageItems of a savingsaccounts page token by token up to the account with the account number, the other
+     * accounts are skipped without being materialized.
+     *
+     * @param page receives the number of accounts read and totalFilteredRecords, in this order
+     * @return the account, null if it is not on the page
+     */
+    static SavingsAccountSummary find(JsonParser parser, String accountNo, int[] page) throws IOException {
+        return scan(parser, account -> accountNo.equals(account.accountNo), page);
+    }
+
+    /**
+     * Reads the pageItems of a savingsaccounts page token by token, each account is passed to the visitor until it returns
+     * true.
+     *
+     * @return the account the visitor stopped at, null if it read the whole page
+     */
+    static SavingsAccountSummary scan(JsonParser parser, Predicate<SavingsAccountSummary> visitor, int[] page) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("Unexpected savingsaccounts response, no object");
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("totalFilteredRecords".equals(field)) {
+                page[1] = parser.getValueAsInt();
+            } else if ("pageItems".equals(field) && value == JsonToken.START_ARRAY) {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    page[0]++;
+                    SavingsAccountSummary account = read(parser);
+                    if (visitor.test(account)) {
+                        return account;
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return null;
+    }
+
+    private static SavingsAccountSummary read(JsonParser parser) throws IOException {
+        SavingsAccountSummary account = new SavingsAccountSummary();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("accountNo".equals(field)) {
+                account.accountNo = parser.getValueAsString();
+            } else if ("externalId".equals(field)) {
+                account.externalId = parser.getValueAsString();
+            } else if ("currency".equals(field) && value == JsonToken.START_OBJECT) {
+                account.currencyCode = readField(parser, "code");
+            } else if ("status".equals(field) && value == JsonToken.START_OBJECT) {
+                String statusId = readField(parser, "id");
+                account.statusId = statusId != null ? Integer.parseInt(statusId) : 0;
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return account;
+    }
+
+    /**
+     * @return the scalar field of the object the parser is at, the rest of the object is skipped
+     */
+    private static String readField(JsonParser parser, String name) throws IOException {
+        String result = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if (name.equals(field)) {
+                result = parser.getValueAsString();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "SavingsAccountSummary{accountNo=" + accountNo + ", externalId=" + externalId + ", currencyCode=" + currencyCode
+                + ", statusId=" + statusId + "}";
+    }
+}
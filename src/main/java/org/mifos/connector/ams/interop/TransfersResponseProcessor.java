@@ -12,12 +12,12 @@ import static org.mifos.connector.ams.zeebe.ZeebeVariables.TRANSFER_CREATE_FAILE
 import static org.mifos.connector.ams.zeebe.ZeebeVariables.TRANSFER_RESPONSE_PREFIX;
 import static org.mifos.connector.common.ams.dto.TransferActionType.PREPARE;
 
-import io.camunda.zeebe.client.ZeebeClient;
 import java.util.HashMap;
 import java.util.Map;
 import org.apache.camel.Exchange;
 import org.apache.camel.Processor;
 import org.mifos.connector.ams.errorhandler.ErrorTranslator;
+import org.mifos.connector.ams.zeebe.ZeebeCompletionService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -29,8 +29,8 @@ public class TransfersResponseProcessor implements Processor {
 
     private Logger logger = LoggerFactory.getLogger(this.getClass());
 
-    @Autowired(required = false)
-    private ZeebeClient zeebeClient;
+    @Autowired
+    private ZeebeCompletionService completionService;
 
     @Autowired
     private ErrorTranslator errorTranslator;
@@ -60,7 +60,7 @@ public class TransfersResponseProcessor implements Processor {
             variables.put(ACTION_FAILURE_MAP.get(transferAction), false);
         }
         variables.put(FINERACT_RESPONSE_BODY, exchange.getIn().getBody());
-        zeebeClient.newCompleteCommand(exchange.getProperty(ZEEBE_JOB_KEY, Long.class)).variables(variables).send();
+        completionService.complete(exchange, variables);
         logger.info("Completed job with key: {}", exchange.getProperty(ZEEBE_JOB_KEY, Long.class));
     }
 }
@@ -0,0 +1,98 @@
+package org.mifos.connector.ams.logging;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.PostConstruct;
+import org.mifos.connector.ams.properties.LoggingProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.stereotype.Component;
+
+/**
+ * Logging helpers for the per job path: MDC correlation, per category sampling, payload truncation and switching between
+ * the logging profiles of {@link LoggingProperties} at runtime.
+ */
+@Component
+public class HotPathLogging {
+
+    public static final String MDC_JOB_KEY = "jobKey";
+    public static final String MDC_JOB_TYPE = "jobType";
+    public static final String MDC_TRANSACTION_ID = "transactionId";
+    public static final String MDC_TENANT = "tenant";
+
+    public static final String JOB_DETAILS = "job-details";
+    public static final String PAYLOADS = "payloads";
+
+    private Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    @Autowired
+    private LoggingProperties loggingProperties;
+
+    @Autowired
+    private LoggingSystem loggingSystem;
+
+    private final Map<String, AtomicLong> sampleCounters = new ConcurrentHashMap<>();
+    private volatile String profile;
+
+    @PostConstruct
+    public void setup() {
+        applyProfile(loggingProperties.getProfile());
+    }
+
+    public static void correlate(String key, Object value) {
+        if (value != null) {
+            MDC.put(key, value.toString());
+        }
+    }
+
+    public static void clearCorrelation() {
+        MDC.remove(MDC_JOB_KEY);
+        MDC.remove(MDC_JOB_TYPE);
+        MDC.remove(MDC_TRANSACTION_ID);
+        MDC.remove(MDC_TENANT);
+    }
+
+    /**
+     * @return whether this event of the category is logged, every n-th event is with ams.logging.sampling.category=n
+     */
+    public boolean sample(String category) {
+        Integer rate = loggingProperties.getSampling().get(category);
+        if (rate == null || rate <= 1) {
+            return true;
+        }
+        return sampleCounters.computeIfAbsent(category, c -> new AtomicLong()).getAndIncrement() % rate == 0;
+    }
+
+    public String truncate(Object payload) {
+        if (payload == null) {
+            return null;
+        }
+        String text = payload instanceof byte[] ? new String((byte[]) payload, StandardCharsets.UTF_8) : payload.toString();
+        int max = loggingProperties.getPayloadMaxLength();
+        if (text.length() <= max) {
+            return text;
+        }
+        return new StringBuilder(max + 24).append(text, 0, max).append("...(").append(text.length()).append(" chars)").toString();
+    }
+
+    public String getProfile() {
+        return profile;
+    }
+
+    public void applyProfile(String name) {
+        Map<String, String> levels = loggingProperties.getProfiles().get(name);
+        if (levels == null) {
+            throw new IllegalArgumentException(
+                    "Unknown logging profile: " + name + ", configured: " + loggingProperties.getProfiles().keySet());
+        }
+        levels.forEach((loggerName, level) -> loggingSystem.setLogLevel(loggerName, LogLevel.valueOf(level.toUpperCase())));
+        profile = name;
+        logger.info("Logging profile {} applied: {}", name, levels);
+    }
+}
@@ -0,0 +1,31 @@
+package org.mifos.connector.ams.logging;
+
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Switches between the verbose and production logging profiles at runtime, POST {"profile": "verbose"} to
+ * /actuator/logprofile.
+ */
+@Component
+@Endpoint(id = "logprofile")
+public class LoggingProfileEndpoint {
+
+    @Autowired
+    private HotPathLogging hotPathLogging;
+
+    @ReadOperation
+    public Map<String, String> profile() {
+        return Map.of("profile", hotPathLogging.getProfile());
+    }
+
+    @WriteOperation
+    public Map<String, String> switchProfile(String profile) {
+        hotPathLogging.applyProfile(profile);
+        return profile();
+    }
+}
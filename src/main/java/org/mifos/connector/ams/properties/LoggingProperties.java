@@ -0,0 +1,56 @@
+package org.mifos.connector.ams.properties;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "ams.logging")
+public class LoggingProperties {
+
+    // active logging profile, one of the keys of profiles
+    private String profile = "production";
+
+    // logger levels of each profile, keyed by logger name
+    private Map<String, Map<String, String>> profiles = new HashMap<>();
+
+    // log one in n events of a category, categories missing here are always logged
+    private Map<String, Integer> sampling = new HashMap<>();
+
+    private int payloadMaxLength = 512;
+
+    public LoggingProperties() {}
+
+    public String getProfile() {
+        return profile;
+    }
+
+    public void setProfile(String profile) {
+        this.profile = profile;
+    }
+
+    public Map<String, Map<String, String>> getProfiles() {
+        return profiles;
+    }
+
+    public void setProfiles(Map<String, Map<String, String>> profiles) {
+        this.profiles = profiles;
+    }
+
+    public Map<String, Integer> getSampling() {
+        return sampling;
+    }
+
+    public void setSampling(Map<String, Integer> sampling) {
+        this.sampling = sampling;
+    }
+
+    public int getPayloadMaxLength() {
+        return payloadMaxLength;
+    }
+
+    public void setPayloadMaxLength(int payloadMaxLength) {
+        this.payloadMaxLength = payloadMaxLength;
+    }
+}
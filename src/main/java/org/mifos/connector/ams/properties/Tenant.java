@@ -7,6 +7,8 @@ public class Tenant {
     private String password;
     private String authtype;
     private String fspId;
+    private Integer maxConcurrentCalls;
+    private Integer maxQueuedCalls;
 
     public Tenant() {}
 
@@ -49,4 +51,20 @@ public class Tenant {
     public void setFspId(String fspId) {
         this.fspId = fspId;
     }
+
+    public Integer getMaxConcurrentCalls() {
+        return maxConcurrentCalls;
+    }
+
+    public void setMaxConcurrentCalls(Integer maxConcurrentCalls) {
+        this.maxConcurrentCalls = maxConcurrentCalls;
+    }
+
+    public Integer getMaxQueuedCalls() {
+        return maxQueuedCalls;
+    }
+
+    public void setMaxQueuedCalls(Integer maxQueuedCalls) {
+        this.maxQueuedCalls = maxQueuedCalls;
+    }
 }
@@ -1,7 +1,9 @@
 package org.mifos.connector.ams.properties;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.mifos.connector.ams.tenant.TenantNotExistException;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
@@ -12,6 +14,8 @@ public class TenantProperties {
 
     private List<Tenant> tenants = new ArrayList<>();
 
+    private volatile TenantIndex tenantIndex;
+
     public TenantProperties() {}
 
     public List<Tenant> getTenants() {
@@ -23,7 +27,39 @@ public class TenantProperties {
     }
 
     public Tenant getTenant(String name) {
-        return getTenants().stream().filter(t -> t.getName().equals(name)).findFirst()
-                .orElseThrow(() -> new TenantNotExistException("Tenant with name: " + name + ", not configuerd!"));
+        Tenant tenant = name != null ? tenantIndex().byName.get(name) : null;
+        if (tenant == null) {
+            throw new TenantNotExistException("Tenant with name: " + name + ", not configuerd!");
+        }
+        return tenant;
+    }
+
+    /**
+     * @return the tenants by name, indexed again when the tenant list was replaced or changed in size
+     */
+    private TenantIndex tenantIndex() {
+        TenantIndex index = tenantIndex;
+        List<Tenant> current = getTenants();
+        if (index == null || index.tenants != current || index.size != current.size()) {
+            index = new TenantIndex(current);
+            tenantIndex = index;
+        }
+        return index;
+    }
+
+    private static final class TenantIndex {
+
+        private final List<Tenant> tenants;
+        private final int size;
+        private final Map<String, Tenant> byName = new HashMap<>();
+
+        private TenantIndex(List<Tenant> tenants) {
+            this.tenants = tenants;
+            this.size = tenants.size();
+            // the first tenant of a name wins, as with the scan of the list
+            for (Tenant tenant : tenants) {
+                byName.putIfAbsent(tenant.getName(), tenant);
+            }
+        }
     }
 }
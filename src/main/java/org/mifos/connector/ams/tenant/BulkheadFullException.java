@@ -0,0 +1,8 @@
+package org.mifos.connector.ams.tenant;
+
+public class BulkheadFullException extends RuntimeException {
+
+    public BulkheadFullException(String message) {
+        super(message);
+    }
+}
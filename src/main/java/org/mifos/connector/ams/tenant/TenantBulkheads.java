@@ -0,0 +1,153 @@
+package org.mifos.connector.ams.tenant;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.mifos.connector.ams.properties.Tenant;
+import org.mifos.connector.ams.properties.TenantProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Limits the Fineract calls in flight per tenant, so a slow tenant can not tie up the threads shared by all tenants.
+ * Calls beyond the limit wait in a bounded per tenant queue for at most max-wait-ms, calls that find the queue full or
+ * time out fail with {@link BulkheadFullException}. The limits of a tenant are maxConcurrentCalls and maxQueuedCalls of
+ * its {@link Tenant} entry, ams.local.bulkhead holds the defaults.
+ */
+@Component
+public class TenantBulkheads {
+
+    public static final String BULKHEAD_METRIC = "ams.tenant.bulkhead";
+
+    private Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    @Autowired
+    private TenantProperties tenantProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${ams.local.bulkhead.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ams.local.bulkhead.max-concurrent-calls:50}")
+    private int defaultMaxConcurrentCalls;
+
+    @Value("${ams.local.bulkhead.max-queued-calls:100}")
+    private int defaultMaxQueuedCalls;
+
+    @Value("${ams.local.bulkhead.max-wait-ms:1000}")
+    private long maxWaitMs;
+
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    /**
+     * Waits for a call permit of the tenant, callers release it with {@link #release(String)} once the call returned.
+     */
+    public void acquire(String tenant) {
+        if (!enabled || tenant == null) {
+            return;
+        }
+        Bulkhead bulkhead = bulkhead(tenant);
+        if (bulkhead.permits.tryAcquire()) {
+            return;
+        }
+        if (bulkhead.queued.incrementAndGet() > bulkhead.maxQueued) {
+            bulkhead.queued.decrementAndGet();
+            throw rejected(tenant, bulkhead, "queue full");
+        }
+        try {
+            if (!bulkhead.permits.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS)) {
+                throw rejected(tenant, bulkhead, "no permit within " + maxWaitMs + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw rejected(tenant, bulkhead, "interrupted");
+        } finally {
+            bulkhead.queued.decrementAndGet();
+        }
+    }
+
+    /**
+     * Takes a call permit of the tenant without waiting for one, for callers that must not block.
+     */
+    public void acquireNow(String tenant) {
+        if (!enabled || tenant == null) {
+            return;
+        }
+        Bulkhead bulkhead = bulkhead(tenant);
+        if (!bulkhead.permits.tryAcquire()) {
+            throw rejected(tenant, bulkhead, "no permit");
+        }
+    }
+
+    public void release(String tenant) {
+        if (!enabled || tenant == null) {
+            return;
+        }
+        bulkhead(tenant).permits.release();
+    }
+
+    /**
+     * @return whether a call of the tenant would get a permit or a place in the queue right now
+     */
+    public boolean hasCapacity(String tenant) {
+        if (!enabled || tenant == null) {
+            return true;
+        }
+        Bulkhead bulkhead = bulkhead(tenant);
+        return bulkhead.permits.availablePermits() > 0 || bulkhead.queued.get() < bulkhead.maxQueued;
+    }
+
+    private BulkheadFullException rejected(String tenant, Bulkhead bulkhead, String reason) {
+        Counter.builder(BULKHEAD_METRIC + ".rejected").tag("tenant", tenant).register(meterRegistry).increment();
+        logger.warn("Rejected Fineract call of tenant {}: {}, {} calls in flight", tenant, reason, bulkhead.inFlight());
+        return new BulkheadFullException("Bulkhead of tenant " + tenant + " is full: " + reason);
+    }
+
+    private Bulkhead bulkhead(String tenant) {
+        Bulkhead bulkhead = bulkheads.get(tenant);
+        if (bulkhead == null) {
+            bulkhead = bulkheads.computeIfAbsent(tenant, this::createBulkhead);
+        }
+        return bulkhead;
+    }
+
+    private Bulkhead createBulkhead(String tenant) {
+        Tenant config = tenantProperties.getTenants().stream().filter(t -> tenant.equals(t.getName())).findFirst().orElse(null);
+        int maxConcurrent = config != null && config.getMaxConcurrentCalls() != null ? config.getMaxConcurrentCalls()
+                : defaultMaxConcurrentCalls;
+        int maxQueued = config != null && config.getMaxQueuedCalls() != null ? config.getMaxQueuedCalls() : defaultMaxQueuedCalls;
+        logger.info("Bulkhead of tenant {}: {} concurrent calls, {} queued calls", tenant, maxConcurrent, maxQueued);
+        Bulkhead bulkhead = new Bulkhead(maxConcurrent, maxQueued);
+        Gauge.builder(BULKHEAD_METRIC + ".in-flight", bulkhead, Bulkhead::inFlight).tag("tenant", tenant).register(meterRegistry);
+        Gauge.builder(BULKHEAD_METRIC + ".queued", bulkhead.queued, AtomicInteger::get).tag("tenant", tenant).register(meterRegistry);
+        return bulkhead;
+    }
+
+    private static final class Bulkhead {
+
+        private final int maxConcurrent;
+        private final int maxQueued;
+        private final Semaphore permits;
+        private final AtomicInteger queued = new AtomicInteger();
+
+        private Bulkhead(int maxConcurrent, int maxQueued) {
+            this.maxConcurrent = maxConcurrent;
+            this.maxQueued = maxQueued;
+            this.permits = new Semaphore(maxConcurrent);
+        }
+
+        private int inFlight() {
+            return maxConcurrent - permits.availablePermits();
+        }
+    }
+}
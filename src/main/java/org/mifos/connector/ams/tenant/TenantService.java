@@ -6,6 +6,7 @@ import static org.mifos.connector.ams.camel.config.CamelProperties.LOGIN_USERNAM
 import static org.mifos.connector.ams.zeebe.ZeebeVariables.TENANT_ID;
 
 import java.util.Base64;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -47,8 +48,22 @@ public class TenantService {
 
     private final Map<String, CachedTenantAuth> cachedTenantAuths = new ConcurrentHashMap<>();
 
+    private final Map<String, TenantHeaders> tenantHeaders = new ConcurrentHashMap<>();
+
+    /**
+     * @return the Fineract headers of the tenant, an immutable snapshot which is rebuilt only when the token of the
+     *         tenant is about to expire
+     */
     public Map<String, Object> getHeaders(String tenantName) {
-        logger.info("Getting headers for tenant: {}", tenantName);
+        TenantHeaders snapshot = tenantName != null ? tenantHeaders.get(tenantName) : null;
+        if (snapshot != null && !isAccessTokenExpired(snapshot.auth.getAccessTokenExpiration())) {
+            return snapshot.headers;
+        }
+        return buildHeaders(tenantName);
+    }
+
+    private Map<String, Object> buildHeaders(String tenantName) {
+        logger.info("Building headers for tenant: {}", tenantName);
         Tenant tenant = tenantProperties.getTenant(tenantName);
         Map<String, Object> headers = new HashMap<>();
 
@@ -61,9 +76,12 @@ public class TenantService {
             throw new RuntimeException("Unsupported Fineract version: " + amsLocalVersion);
         }
 
-        headers.put(HttpHeaders.AUTHORIZATION, getTenantAuthData(tenant).getToken());
+        CachedTenantAuth auth = getTenantAuthData(tenant);
+        headers.put(HttpHeaders.AUTHORIZATION, auth.getToken());
 
-        return headers;
+        TenantHeaders snapshot = new TenantHeaders(auth, Collections.unmodifiableMap(headers));
+        tenantHeaders.put(tenantName, snapshot);
+        return snapshot.headers;
     }
 
     private CachedTenantAuth getTenantAuthData(Tenant tenant) {
@@ -106,4 +124,15 @@ public class TenantService {
         Date fiveMinsFromNow = new Date(System.currentTimeMillis() + 300 * 1000);
         return accessTokenExpiration.before(fiveMinsFromNow);
     }
+
+    private static final class TenantHeaders {
+
+        private final CachedTenantAuth auth;
+        private final Map<String, Object> headers;
+
+        private TenantHeaders(CachedTenantAuth auth, Map<String, Object> headers) {
+            this.auth = auth;
+            this.headers = headers;
+        }
+    }
 }
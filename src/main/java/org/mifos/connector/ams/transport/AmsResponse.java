@@ -0,0 +1,75 @@
+package org.mifos.connector.ams.transport;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.camel.Exchange.HTTP_RESPONSE_CODE;
+
+import org.apache.camel.Exchange;
+
+/**
+ * Status code and body of a Fineract response. The body is kept in the form the transport received it, as bytes or as
+ * String, and converted once on first use in the other form. Responses are shared by coalesced callers, the byte array
+ * must not be modified.
+ */
+public class AmsResponse {
+
+    private final int statusCode;
+    private volatile byte[] bytes;
+    private volatile String body;
+
+    public AmsResponse(int statusCode, String body) {
+        this.statusCode = statusCode;
+        this.body = body;
+    }
+
+    public AmsResponse(int statusCode, byte[] bytes) {
+        this.statusCode = statusCode;
+        this.bytes = bytes;
+    }
+
+    public static AmsResponse of(Exchange exchange) {
+        Integer statusCode = exchange.getIn().getHeader(HTTP_RESPONSE_CODE, Integer.class);
+        return new AmsResponse(statusCode != null ? statusCode : 0, exchange.getIn().getBody(String.class));
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public String getBody() {
+        String text = body;
+        if (text == null && bytes != null) {
+            text = new String(bytes, UTF_8);
+            body = text;
+        }
+        return text;
+    }
+
+    /**
+     * @return the UTF-8 body, for parsing without an intermediate String
+     */
+    public byte[] getBodyBytes() {
+        byte[] raw = bytes;
+        if (raw == null && body != null) {
+            raw = body.getBytes(UTF_8);
+            bytes = raw;
+        }
+        return raw;
+    }
+
+    public boolean isSuccessful() {
+        return statusCode >= 200 && statusCode <= 202;
+    }
+
+    /**
+     * Sets the response on the IN message the way the synchronous calls do, for the camel processors reading it.
+     */
+    public void applyTo(Exchange exchange) {
+        exchange.getIn().setHeader(HTTP_RESPONSE_CODE, statusCode);
+        exchange.getIn().setBody(getBody());
+    }
+
+    @Override
+    public String toString() {
+        return "AmsResponse{statusCode=" + statusCode + "}";
+    }
+}
@@ -0,0 +1,25 @@
+package org.mifos.connector.ams.transport;
+
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import org.apache.camel.Exchange;
+
+/**
+ * Sends the requests of the ams services to Fineract. The endpoint is the cxfrs uri of a client in endpoints.xml, e.g.
+ * cxfrs:bean:ams.local.interop, the request is described by the IN message the same way as for camel-cxfrs: method, path
+ * and query map headers, the remaining headers and the body. The response body and {@link Exchange#HTTP_RESPONSE_CODE}
+ * are set on the IN message. Selected with ams.local.transport.
+ */
+public interface AmsTransport {
+
+    String TRANSPORT_CXF = "cxf";
+    String TRANSPORT_JDK = "jdk";
+
+    void send(String endpoint, Exchange exchange);
+
+    /**
+     * Sends the request described by the headers and body without an exchange, the stage completes with the response or
+     * exceptionally when no response was received.
+     */
+    CompletionStage<AmsResponse> sendAsync(String endpoint, Map<String, Object> headers, Object body);
+}
@@ -0,0 +1,61 @@
+package org.mifos.connector.ams.transport;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import javax.annotation.PostConstruct;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.ExchangePattern;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.support.DefaultExchange;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sends requests through the cxf:rsClient beans of endpoints.xml. The cxf clients are synchronous, asynchronous requests
+ * block a thread of the ams-transport pool.
+ */
+@Component
+@ConditionalOnProperty(name = "ams.local.transport", havingValue = AmsTransport.TRANSPORT_CXF, matchIfMissing = true)
+public class CxfrsTransport implements AmsTransport {
+
+    @Autowired
+    private ProducerTemplate template;
+
+    @Autowired
+    private CamelContext camelContext;
+
+    @Value("${ams.local.http.async-threads:16}")
+    private int asyncThreads;
+
+    private ExecutorService asyncExecutor;
+
+    @PostConstruct
+    public void setup() {
+        asyncExecutor = camelContext.getExecutorServiceManager().newFixedThreadPool(this, "ams-transport", asyncThreads);
+    }
+
+    @Override
+    public void send(String endpoint, Exchange exchange) {
+        template.send(endpoint, exchange);
+    }
+
+    @Override
+    public CompletionStage<AmsResponse> sendAsync(String endpoint, Map<String, Object> headers, Object body) {
+        return CompletableFuture.supplyAsync(() -> {
+            Exchange exchange = new DefaultExchange(camelContext, ExchangePattern.InOut);
+            exchange.getIn().setHeaders(headers);
+            exchange.getIn().setBody(body);
+            template.send(endpoint, exchange);
+            if (exchange.getException() != null) {
+                throw new CompletionException(exchange.getException());
+            }
+            return AmsResponse.of(exchange);
+        }, asyncExecutor);
+    }
+}
@@ -0,0 +1,231 @@
+package org.mifos.connector.ams.transport;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adaptive concurrency limit and circuit breaker per Fineract endpoint and tenant. The limit grows by one per limit calls
+ * answered in time and shrinks by backoff-ratio on every call that fails, answers with 5xx or takes longer than
+ * slow-call-ms (AIMD), so the calls in flight follow the concurrency Fineract serves without queueing. Calls beyond the
+ * limit are rejected right away. failure-threshold failed calls in a row open the circuit: calls are rejected for open-ms,
+ * then a single probe call decides whether it closes again. Rejections throw {@link EndpointUnavailableException}.
+ */
+@Component
+public class EndpointLimiters {
+
+    public static final String LIMITER_METRIC = "ams.fineract.limiter";
+
+    private static final String PROBE = "probe";
+
+    private Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${ams.local.limiter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ams.local.limiter.initial-limit:20}")
+    private int initialLimit;
+
+    @Value("${ams.local.limiter.min-limit:2}")
+    private int minLimit;
+
+    @Value("${ams.local.limiter.max-limit:200}")
+    private int maxLimit;
+
+    @Value("${ams.local.limiter.backoff-ratio:0.9}")
+    private double backoffRatio;
+
+    @Value("${ams.local.limiter.slow-call-ms:5000}")
+    private long slowCallMs;
+
+    @Value("${ams.local.limiter.circuit-breaker.failure-threshold:20}")
+    private int failureThreshold;
+
+    @Value("${ams.local.limiter.circuit-breaker.open-ms:10000}")
+    private long openMs;
+
+    private final Map<String, Limiter> limiters = new ConcurrentHashMap<>();
+    private LongSupplier nanoTime = System::nanoTime;
+
+    /**
+     * Takes a call slot of the endpoint and tenant, the caller hands it back with {@link Permit#release(Integer, Throwable)}
+     * once the call returned.
+     */
+    public Permit acquire(String endpoint, String tenant) {
+        if (!enabled) {
+            return Permit.NONE;
+        }
+        String tenantTag = tenant != null ? tenant : "none";
+        Limiter limiter = limiters.get(endpoint + " " + tenantTag);
+        if (limiter == null) {
+            limiter = limiters.computeIfAbsent(endpoint + " " + tenantTag, key -> createLimiter(endpoint, tenantTag));
+        }
+        String rejection = limiter.tryAcquire(nanoTime.getAsLong());
+        if (PROBE.equals(rejection)) {
+            return new Permit(limiter, nanoTime.getAsLong(), true);
+        }
+        if (rejection != null) {
+            Counter.builder(LIMITER_METRIC + ".rejected").tag("endpoint", endpoint).tag("tenant", tenantTag).tag("reason", rejection)
+                    .register(meterRegistry).increment();
+            throw new EndpointUnavailableException("Fineract endpoint " + endpoint + " of tenant " + tenantTag + " rejected call: "
+                    + rejection + ", limit " + limiter.limit());
+        }
+        return new Permit(limiter, nanoTime.getAsLong(), false);
+    }
+
+    private Limiter createLimiter(String endpoint, String tenant) {
+        Limiter limiter = new Limiter(endpoint, tenant);
+        Gauge.builder(LIMITER_METRIC + ".limit", limiter, Limiter::limit).tag("endpoint", endpoint).tag("tenant", tenant)
+                .register(meterRegistry);
+        Gauge.builder(LIMITER_METRIC + ".in-flight", limiter, Limiter::inFlight).tag("endpoint", endpoint).tag("tenant", tenant)
+                .register(meterRegistry);
+        Gauge.builder(LIMITER_METRIC + ".circuit.open", limiter, l -> l.isOpen() ? 1 : 0).tag("endpoint", endpoint)
+                .tag("tenant", tenant).register(meterRegistry);
+        return limiter;
+    }
+
+    public static final class Permit {
+
+        private static final Permit NONE = new Permit(null, 0, false);
+
+        private final Limiter limiter;
+        private final long start;
+        private final boolean probe;
+
+        private Permit(Limiter limiter, long start, boolean probe) {
+            this.limiter = limiter;
+            this.start = start;
+            this.probe = probe;
+        }
+
+        /**
+         * @param statusCode status of the response, null if there is none
+         * @param error      failure of the call, null if it returned a response
+         */
+        public void release(Integer statusCode, Throwable error) {
+            if (limiter == null) {
+                return;
+            }
+            if (error instanceof CancellationException) {
+                // the losing attempt of a hedged read, it says nothing about the endpoint
+                limiter.cancel(limiter.now(), probe);
+                return;
+            }
+            long now = limiter.now();
+            boolean failed = error != null || statusCode == null || statusCode >= 500;
+            limiter.release(now, probe, failed, failed || now - start > limiter.slowCallNanos);
+        }
+    }
+
+    /**
+     * State of one endpoint and tenant. Guarded by its monitor, the critical sections are a few arithmetic operations.
+     */
+    private final class Limiter {
+
+        private final String endpoint;
+        private final String tenant;
+        private final long slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMs);
+        private double limit = initialLimit;
+        private int inFlight;
+        private int consecutiveFailures;
+        private boolean open;
+        private long openUntil;
+        private boolean probing;
+
+        private Limiter(String endpoint, String tenant) {
+            this.endpoint = endpoint;
+            this.tenant = tenant;
+        }
+
+        /**
+         * @return the reason of the rejection, {@link #PROBE} if the call goes ahead as the probe of the open circuit, null
+         *         if it goes ahead as any other call
+         */
+        private synchronized String tryAcquire(long now) {
+            if (open) {
+                if (now - openUntil < 0 || probing) {
+                    return "circuit-open";
+                }
+                // half open, the one probe call decides
+                probing = true;
+                inFlight++;
+                return PROBE;
+            } else if (inFlight >= (int) limit) {
+                return "limit";
+            }
+            inFlight++;
+            return null;
+        }
+
+        private synchronized void release(long now, boolean probe, boolean failed, boolean dropped) {
+            if (dropped) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            } else if (inFlight >= limit / 2) {
+                // grow only while the limit is actually used, an idle endpoint keeps its limit
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+            inFlight--;
+            if (open && !probe) {
+                // a call admitted before the circuit opened, only the probe decides
+                return;
+            }
+            if (!failed) {
+                if (open) {
+                    logger.info("Circuit of Fineract endpoint {} of tenant {} closed", endpoint, tenant);
+                }
+                consecutiveFailures = 0;
+                open = false;
+                probing = false;
+                return;
+            }
+            consecutiveFailures++;
+            if (probe || consecutiveFailures >= failureThreshold) {
+                logger.warn("Circuit of Fineract endpoint {} of tenant {} open for {} ms after {} failed calls", endpoint, tenant, openMs,
+                        consecutiveFailures);
+                open = true;
+                openUntil = now + TimeUnit.MILLISECONDS.toNanos(openMs);
+                probing = false;
+            }
+        }
+
+        /**
+         * A cancelled probe decided nothing, the circuit stays open for another open-ms before the next probe.
+         */
+        private synchronized void cancel(long now, boolean probe) {
+            inFlight--;
+            if (probe && probing) {
+                openUntil = now + TimeUnit.MILLISECONDS.toNanos(openMs);
+                probing = false;
+            }
+        }
+
+        private long now() {
+            return nanoTime.getAsLong();
+        }
+
+        private synchronized double limit() {
+            return limit;
+        }
+
+        private synchronized int inFlight() {
+            return inFlight;
+        }
+
+        private synchronized boolean isOpen() {
+            return open;
+        }
+    }
+}
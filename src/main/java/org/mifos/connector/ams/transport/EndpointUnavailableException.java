@@ -0,0 +1,14 @@
+package org.mifos.connector.ams.transport;
+
+import org.mifos.connector.ams.tenant.BulkheadFullException;
+
+/**
+ * A Fineract endpoint of a tenant is at its concurrency limit or its circuit is open, see {@link EndpointLimiters}. Like a
+ * full bulkhead, the job is handed back to zeebe without using up a retry.
+ */
+public class EndpointUnavailableException extends BulkheadFullException {
+
+    public EndpointUnavailableException(String message) {
+        super(message);
+    }
+}
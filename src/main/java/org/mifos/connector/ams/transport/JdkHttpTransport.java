@@ -0,0 +1,278 @@
+package org.mifos.connector.ams.transport;
+
+import static org.apache.camel.Exchange.HTTP_METHOD;
+import static org.apache.camel.Exchange.HTTP_PATH;
+import static org.apache.camel.Exchange.HTTP_RESPONSE_CODE;
+import static org.mifos.connector.ams.camel.cxfrs.HeaderBasedInterceptor.CXF_TRACE_HEADER;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.PostConstruct;
+import javax.net.ssl.SSLContext;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.Message;
+import org.apache.camel.component.cxf.common.message.CxfConstants;
+import org.apache.camel.support.jsse.SSLContextParameters;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sends requests with {@link HttpClient}, one client and so one connection pool per Fineract host, shared by the
+ * cxf:rsClient ids of endpoints.xml on that host. Addresses are read from the host properties endpoints.xml uses. Uses
+ * HTTP/2 where the server offers it and falls back to HTTP/1.1. The client trusts the certificates the cxf clients trust,
+ * host names are verified unlike with the disableCNCheck of the cxf conduit.
+ */
+@Component
+@ConditionalOnProperty(name = "ams.local.transport", havingValue = AmsTransport.TRANSPORT_JDK)
+public class JdkHttpTransport implements AmsTransport {
+
+    public static final String TRANSPORT_METRIC = "ams.transport.http";
+
+    private static final String CXFRS_BEAN_PREFIX = "cxfrs:bean:";
+    // request description and headers the client sets itself
+    private static final Set<String> SKIPPED_HEADERS = Set.of(HTTP_METHOD.toLowerCase(), HTTP_PATH.toLowerCase(),
+            CXF_TRACE_HEADER.toLowerCase(), CxfConstants.CAMEL_CXF_RS_QUERY_MAP.toLowerCase(), "content-length", "host", "connection",
+            "expect", "upgrade");
+    // methods sent without a body, the body of the exchange is the response of an earlier call
+    private static final Set<String> BODILESS_METHODS = Set.of("GET", "HEAD", "DELETE");
+    // unreserved, sub-delims, ':', '@' and the segment separator
+    private static final String PATH_CHARACTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-._~!$&'()*+,;=:@/";
+    private static final String HEX_DIGITS = "0123456789ABCDEF";
+
+    private Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private SSLContextParameters sslContextParameters;
+
+    @Autowired
+    private CamelContext camelContext;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ResponseBodyReader responseBodyReader;
+
+    @Value("${ams.local.http.connect-timeout-ms:5000}")
+    private long connectTimeoutMs;
+
+    @Value("${ams.local.http.read-timeout-ms:30000}")
+    private long readTimeoutMs;
+
+    @Value("${ams.local.http.http2:true}")
+    private boolean http2;
+
+    private final Map<String, Host> hosts = new ConcurrentHashMap<>();
+    private final Map<String, HttpClient> clients = new ConcurrentHashMap<>();
+    private SSLContext sslContext;
+
+    @PostConstruct
+    public void setup() throws GeneralSecurityException, IOException {
+        sslContext = sslContextParameters.createSSLContext(camelContext);
+        Gauge.builder(TRANSPORT_METRIC + ".clients", clients, Map::size).register(meterRegistry);
+    }
+
+    @Override
+    public void send(String endpoint, Exchange exchange) {
+        Host host = host(endpoint);
+        Message in = exchange.getIn();
+        host.inFlight.incrementAndGet();
+        try {
+            HttpResponse<InputStream> response = host.client.send(request(host, in.getHeaders(), in.getBody()),
+                    HttpResponse.BodyHandlers.ofInputStream());
+            in.removeHeaders("*");
+            response.headers().map().forEach((name, values) -> in.setHeader(name, values.size() == 1 ? values.get(0) : values));
+            in.setHeader(HTTP_RESPONSE_CODE, response.statusCode());
+            in.setBody(responseBodyReader.read(exchange, response.statusCode(), response.body()));
+            countResponse(host, response);
+        } catch (IOException e) {
+            exchange.setException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            exchange.setException(e);
+        } finally {
+            host.inFlight.decrementAndGet();
+        }
+    }
+
+    @Override
+    public CompletionStage<AmsResponse> sendAsync(String endpoint, Map<String, Object> headers, Object body) {
+        Host host = host(endpoint);
+        HttpRequest request = request(host, headers, body);
+        host.inFlight.incrementAndGet();
+        CompletableFuture<HttpResponse<byte[]>> sent = host.client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+        CompletableFuture<AmsResponse> result = new CompletableFuture<>();
+        sent.whenComplete((response, error) -> {
+            host.inFlight.decrementAndGet();
+            if (error != null) {
+                result.completeExceptionally(error);
+                return;
+            }
+            countResponse(host, response);
+            result.complete(new AmsResponse(response.statusCode(), response.body()));
+        });
+        // cancelling the result, e.g. the losing attempt of a hedged read, aborts the request
+        result.whenComplete((response, error) -> {
+            if (error instanceof CancellationException) {
+                sent.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    private void countResponse(Host host, HttpResponse<?> response) {
+        Counter.builder(TRANSPORT_METRIC + ".responses").tag("client", host.id).tag("version", response.version().name())
+                .register(meterRegistry).increment();
+    }
+
+    private HttpRequest request(Host host, Map<String, Object> headers, Object body) {
+        String method = headers.getOrDefault(HTTP_METHOD, "GET").toString();
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri(host, headers)).timeout(Duration.ofMillis(readTimeoutMs))
+                .method(method, BODILESS_METHODS.contains(method) ? HttpRequest.BodyPublishers.noBody() : bodyPublisher(body));
+        headers.forEach((name, value) -> {
+            if (value != null && !name.startsWith("Camel") && !SKIPPED_HEADERS.contains(name.toLowerCase())) {
+                request.header(name, value.toString());
+            }
+        });
+        return request.build();
+    }
+
+    /**
+     * @return a publisher of the body with a known content length, serialized bodies are sent from their array as they are
+     */
+    private HttpRequest.BodyPublisher bodyPublisher(Object body) {
+        if (body == null) {
+            return HttpRequest.BodyPublishers.noBody();
+        }
+        if (body instanceof byte[]) {
+            return HttpRequest.BodyPublishers.ofByteArray((byte[]) body);
+        }
+        return HttpRequest.BodyPublishers.ofString(camelContext.getTypeConverter().convertTo(String.class, body));
+    }
+
+    private URI uri(Host host, Map<String, Object> headers) {
+        StringBuilder uri = new StringBuilder(host.address);
+        String path = (String) headers.get(HTTP_PATH);
+        if (path != null) {
+            if (!path.startsWith("/")) {
+                uri.append('/');
+            }
+            appendPath(uri, path);
+        }
+        Map<?, ?> queryMap = (Map<?, ?>) headers.get(CxfConstants.CAMEL_CXF_RS_QUERY_MAP);
+        if (queryMap != null && !queryMap.isEmpty()) {
+            char separator = '?';
+            for (Map.Entry<?, ?> parameter : queryMap.entrySet()) {
+                uri.append(separator).append(URLEncoder.encode(String.valueOf(parameter.getKey()), StandardCharsets.UTF_8)).append('=')
+                        .append(URLEncoder.encode(String.valueOf(parameter.getValue()), StandardCharsets.UTF_8));
+                separator = '&';
+            }
+        }
+        return URI.create(uri.toString());
+    }
+
+    /**
+     * Appends the path with the characters that are not allowed in a path segment percent-encoded as UTF-8, like the cxf
+     * client does, e.g. the spaces, '#' or non-ASCII characters of a party identifier. Escapes already in the path are kept.
+     */
+    static void appendPath(StringBuilder uri, String path) {
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (PATH_CHARACTERS.indexOf(c) >= 0 || c == '%' && i + 2 < path.length() && isHex(path.charAt(i + 1))
+                    && isHex(path.charAt(i + 2))) {
+                uri.append(c);
+                continue;
+            }
+            int end = Character.isHighSurrogate(c) && i + 1 < path.length() ? i + 2 : i + 1;
+            for (byte b : path.substring(i, end).getBytes(StandardCharsets.UTF_8)) {
+                uri.append('%').append(HEX_DIGITS.charAt(b >> 4 & 0xF)).append(HEX_DIGITS.charAt(b & 0xF));
+            }
+            i = end - 1;
+        }
+    }
+
+    private static boolean isHex(char c) {
+        return c < 128 && Character.digit(c, 16) >= 0;
+    }
+
+    private Host host(String endpoint) {
+        Host host = hosts.get(endpoint);
+        if (host == null) {
+            host = hosts.computeIfAbsent(endpoint, this::createHost);
+        }
+        return host;
+    }
+
+    private Host createHost(String endpoint) {
+        String id = endpoint.startsWith(CXFRS_BEAN_PREFIX) ? endpoint.substring(CXFRS_BEAN_PREFIX.length()) : endpoint;
+        String address = address(id);
+        URI origin = URI.create(address);
+        HttpClient client = clients.computeIfAbsent(origin.getScheme() + "://" + origin.getAuthority(), this::createClient);
+        Host host = new Host(id, address, client);
+        Gauge.builder(TRANSPORT_METRIC + ".in-flight", host.inFlight, AtomicInteger::get).tag("client", id).register(meterRegistry);
+        return host;
+    }
+
+    private HttpClient createClient(String origin) {
+        logger.info("Created http client for {}, http2: {}", origin, http2);
+        return HttpClient.newBuilder().version(http2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs)).sslContext(sslContext).followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+    }
+
+    /**
+     * @return the address of the client as configured for endpoints.xml, ams.local.customer.image uses the customer host
+     */
+    private String address(String id) {
+        String name = id;
+        while (name.contains(".")) {
+            String address = environment.getProperty(name + ".host");
+            if (address != null) {
+                return address.endsWith("/") ? address.substring(0, address.length() - 1) : address;
+            }
+            name = name.substring(0, name.lastIndexOf('.'));
+        }
+        throw new IllegalStateException("No host configured for http client " + id);
+    }
+
+    private static final class Host {
+
+        private final String id;
+        private final String address;
+        private final HttpClient client;
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private Host(String id, String address, HttpClient client) {
+            this.id = id;
+            this.address = address;
+            this.client = client;
+        }
+    }
+}
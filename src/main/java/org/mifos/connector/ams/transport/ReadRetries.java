@@ -0,0 +1,173 @@
+package org.mifos.connector.ams.transport;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import org.mifos.connector.ams.tenant.BulkheadFullException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Retries of idempotent Fineract reads that failed with a 5xx or without a response, after a backoff drawn at random
+ * between 0 and initial-backoff-ms doubled per attempt, capped at max-backoff-ms. Retries draw on a budget per endpoint
+ * and tenant that grows by budget-ratio per successful read, up to max-budget, so retries add at most that share of the
+ * successful traffic and stop when Fineract is down. Calls rejected by the bulkhead or the endpoint limiter are not
+ * retried. Asynchronous reads wait for the backoff on a timer. Synchronous reads sleep through it on the calling thread,
+ * which with zeebe.client.async-handlers.enabled is a thread of the async handler pool, each retry holds it for up to
+ * max-backoff-ms.
+ */
+@Component
+public class ReadRetries {
+
+    public static final String RETRY_METRIC = "ams.fineract.retries";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${ams.local.retry.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ams.local.retry.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${ams.local.retry.initial-backoff-ms:50}")
+    private long initialBackoffMs;
+
+    @Value("${ams.local.retry.max-backoff-ms:1000}")
+    private long maxBackoffMs;
+
+    @Value("${ams.local.retry.budget-ratio:0.1}")
+    private double budgetRatio;
+
+    @Value("${ams.local.retry.max-budget:10}")
+    private double maxBudget;
+
+    private final Map<String, Budget> budgets = new ConcurrentHashMap<>();
+
+    /**
+     * Called with the outcome of every attempt of a read.
+     *
+     * @param statusCode status of the response, null if there is none
+     * @param error      failure of the attempt, null if it returned a response
+     * @return the backoff before the next attempt, -1 if the read must not be retried
+     */
+    public long retryDelayMs(String endpoint, String tenant, int attempt, Integer statusCode, Throwable error) {
+        if (!enabled) {
+            return -1;
+        }
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        boolean failed = cause != null || statusCode == null || statusCode >= 500;
+        Budget budget = budget(endpoint, tenant);
+        if (!failed) {
+            budget.deposit();
+            return -1;
+        }
+        if (cause instanceof BulkheadFullException || cause instanceof CancellationException) {
+            return -1;
+        }
+        if (attempt >= maxAttempts) {
+            count("exhausted", endpoint, tenant);
+            return -1;
+        }
+        if (!budget.withdraw()) {
+            count("budget-exhausted", endpoint, tenant);
+            return -1;
+        }
+        count("retried", endpoint, tenant);
+        long backoff = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(backoff + 1);
+    }
+
+    /**
+     * Sends the read with the attempt function, called with the endpoint, again after a backoff while the attempts fail and
+     * the budget allows. Cancelling the returned future cancels the attempt in flight.
+     */
+    public CompletableFuture<AmsResponse> send(String endpoint, String tenant, Function<String, CompletableFuture<AmsResponse>> attempt) {
+        if (!enabled) {
+            return attempt.apply(endpoint);
+        }
+        String endpointName = endpoint.substring(endpoint.lastIndexOf(':') + 1);
+        CompletableFuture<AmsResponse> result = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<AmsResponse>> current = new AtomicReference<>();
+        result.whenComplete((response, error) -> {
+            CompletableFuture<AmsResponse> inFlight = current.get();
+            if (error instanceof CancellationException && inFlight != null) {
+                inFlight.cancel(true);
+            }
+        });
+        attempt(endpoint, endpointName, tenant, attempt, 1, current, result);
+        return result;
+    }
+
+    private void attempt(String endpoint, String endpointName, String tenant, Function<String, CompletableFuture<AmsResponse>> attempt,
+            int number, AtomicReference<CompletableFuture<AmsResponse>> current, CompletableFuture<AmsResponse> result) {
+        CompletableFuture<AmsResponse> call = attempt.apply(endpoint);
+        current.set(call);
+        if (result.isDone()) {
+            call.cancel(true);
+            return;
+        }
+        call.whenComplete((response, error) -> {
+            if (result.isDone()) {
+                return;
+            }
+            long delayMs = retryDelayMs(endpointName, tenant, number, response != null ? response.getStatusCode() : null, error);
+            if (delayMs < 0) {
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(response);
+                }
+                return;
+            }
+            CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS).execute(() -> {
+                if (!result.isDone()) {
+                    attempt(endpoint, endpointName, tenant, attempt, number + 1, current, result);
+                }
+            });
+        });
+    }
+
+    private Budget budget(String endpoint, String tenant) {
+        String key = endpoint + " " + tenant;
+        Budget budget = budgets.get(key);
+        if (budget == null) {
+            budget = budgets.computeIfAbsent(key, k -> new Budget());
+        }
+        return budget;
+    }
+
+    private void count(String result, String endpoint, String tenant) {
+        Counter.builder(RETRY_METRIC).tag("result", result).tag("endpoint", endpoint).tag("tenant", tenant != null ? tenant : "none")
+                .register(meterRegistry).increment();
+    }
+
+    /**
+     * Token bucket of the retries of one endpoint and tenant, it starts full so a cold connector can retry.
+     */
+    private final class Budget {
+
+        private double tokens = maxBudget;
+
+        private synchronized void deposit() {
+            tokens = Math.min(maxBudget, tokens + budgetRatio);
+        }
+
+        private synchronized boolean withdraw() {
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+    }
+}
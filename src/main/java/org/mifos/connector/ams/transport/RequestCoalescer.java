@@ -0,0 +1,95 @@
+package org.mifos.connector.ams.transport;
+
+import static org.apache.camel.Exchange.HTTP_METHOD;
+import static org.apache.camel.Exchange.HTTP_PATH;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import javax.annotation.PostConstruct;
+import org.apache.camel.component.cxf.common.message.CxfConstants;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Single flight of identical Fineract reads: a GET of the same tenant, endpoint, path and query issued while the same GET
+ * is in flight waits for that call and shares its response instead of calling Fineract again. Calls with a body are never
+ * shared.
+ */
+@Component
+public class RequestCoalescer {
+
+    public static final String COALESCED_METRIC = "ams.fineract.coalesced";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${ams.local.coalescing.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ams.local.coalescing.max-wait-ms:30000}")
+    private long maxWaitMs;
+
+    private final Map<String, CompletableFuture<?>> flights = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void setup() {
+        Gauge.builder(COALESCED_METRIC + ".in-flight", flights, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * @param variant distinguishes calls whose responses are not interchangeable, like different response types
+     * @return the key of the call, null if it must not be shared
+     */
+    public String key(String endpoint, String tenant, Map<String, Object> headers, Object body, Object variant) {
+        if (!enabled || body != null || !"GET".equals(headers.get(HTTP_METHOD))) {
+            return null;
+        }
+        Object query = headers.get(CxfConstants.CAMEL_CXF_RS_QUERY_MAP);
+        return tenant + " " + endpoint + " " + headers.get(HTTP_PATH) + (query != null ? " " + query : "") + " " + variant;
+    }
+
+    /**
+     * Registers the flight of the caller, unless the same call is in flight already.
+     *
+     * @return the flight in progress, null if the caller has to make the call and {@link #land(String, CompletableFuture)}
+     *         its flight
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> join(String key, CompletableFuture<T> flight) {
+        return (CompletableFuture<T>) flights.putIfAbsent(key, flight);
+    }
+
+    public void land(String key, CompletableFuture<?> flight) {
+        flights.remove(key, flight);
+    }
+
+    /**
+     * Waits for the response of the flight in progress.
+     *
+     * @return the response, null if the flight failed or took longer than max-wait-ms and the caller has to make the call
+     *         itself
+     */
+    public <T> T await(CompletableFuture<T> flight) {
+        try {
+            return flight.get(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | TimeoutException e) {
+            return null;
+        }
+    }
+
+    public void countCoalesced(String endpoint, String tenant) {
+        Counter.builder(COALESCED_METRIC).tag("endpoint", endpoint).tag("tenant", tenant != null ? tenant : "none").register(meterRegistry)
+                .increment();
+    }
+}
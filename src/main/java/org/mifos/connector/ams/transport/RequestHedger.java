@@ -0,0 +1,209 @@
+package org.mifos.connector.ams.transport;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hedged Fineract reads: when the response of a read has not arrived after the percentile latency of its endpoint, a
+ * second request is sent, the first response wins and the other request is cancelled. Hedges draw on a budget that
+ * grows by budget-ratio per read, so they add at most that share of load. With the jdk transport hedges go to the
+ * alternate host &lt;client&gt;.hedge.host where configured, e.g. ams.local.interop.hedge.host, otherwise to the same
+ * host. Only for idempotent requests.
+ */
+@Component
+public class RequestHedger {
+
+    public static final String HEDGE_METRIC = "ams.fineract.hedge";
+
+    private static final String CXFRS_BEAN_PREFIX = "cxfrs:bean:";
+    private static final int WINDOW = 1024;
+    private static final int MIN_SAMPLES = 100;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${ams.local.hedging.enabled:false}")
+    private boolean enabled;
+
+    @Value("${ams.local.transport:cxf}")
+    private String transport;
+
+    @Value("${ams.local.hedging.percentile:0.95}")
+    private double percentile;
+
+    @Value("${ams.local.hedging.min-delay-ms:20}")
+    private long minDelayMs;
+
+    @Value("${ams.local.hedging.budget-ratio:0.05}")
+    private double budgetRatio;
+
+    @Value("${ams.local.hedging.max-budget:10}")
+    private double maxBudget;
+
+    private final Map<String, Latencies> latencies = new ConcurrentHashMap<>();
+    private final Map<String, String> alternates = new ConcurrentHashMap<>();
+    private double budget;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sends the read with the attempt function, called with the endpoint of the attempt, once and a second time if the
+     * first response is late. The returned future completes with the first response, or with the last failure when both
+     * attempts failed.
+     */
+    public CompletableFuture<AmsResponse> send(String endpoint, String tenant, Function<String, CompletableFuture<AmsResponse>> attempt) {
+        String endpointName = endpoint.substring(endpoint.lastIndexOf(':') + 1);
+        Latencies window = latencies.computeIfAbsent(endpointName, name -> new Latencies());
+        long delayMs = window.delayMs();
+        addBudget();
+        CompletableFuture<AmsResponse> primary = timed(window, attempt.apply(endpoint));
+        if (delayMs < 0) {
+            return primary;
+        }
+        HedgedCall call = new HedgedCall(endpointName, tenant, primary);
+        Executor delayed = CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS);
+        CompletableFuture.runAsync(() -> {
+            if (call.result.isDone()) {
+                return;
+            }
+            if (!takeBudget()) {
+                count("skipped", endpointName, tenant);
+                return;
+            }
+            count("sent", endpointName, tenant);
+            call.hedge(timed(window, attempt.apply(alternate(endpoint))));
+        }, delayed);
+        return call.result;
+    }
+
+    private static CompletableFuture<AmsResponse> timed(Latencies window, CompletableFuture<AmsResponse> attempt) {
+        long start = System.nanoTime();
+        attempt.whenComplete((response, error) -> {
+            if (error == null) {
+                window.record(System.nanoTime() - start);
+            }
+        });
+        return attempt;
+    }
+
+    private synchronized void addBudget() {
+        budget = Math.min(maxBudget, budget + budgetRatio);
+    }
+
+    private synchronized boolean takeBudget() {
+        if (budget < 1) {
+            return false;
+        }
+        budget--;
+        return true;
+    }
+
+    private String alternate(String endpoint) {
+        if (!AmsTransport.TRANSPORT_JDK.equals(transport)) {
+            return endpoint;
+        }
+        return alternates.computeIfAbsent(endpoint, e -> {
+            String id = e.startsWith(CXFRS_BEAN_PREFIX) ? e.substring(CXFRS_BEAN_PREFIX.length()) : e;
+            return environment.containsProperty(id + ".hedge.host") ? e + ".hedge" : e;
+        });
+    }
+
+    private void count(String result, String endpoint, String tenant) {
+        Counter.builder(HEDGE_METRIC + ".requests").tag("result", result).tag("endpoint", endpoint)
+                .tag("tenant", tenant != null ? tenant : "none").register(meterRegistry).increment();
+    }
+
+    /**
+     * The attempts of one read, the first response completes the result and cancels the other attempt.
+     */
+    private final class HedgedCall {
+
+        private final String endpoint;
+        private final String tenant;
+        private final CompletableFuture<AmsResponse> primary;
+        private final CompletableFuture<AmsResponse> result = new CompletableFuture<>();
+        private final AtomicInteger pending = new AtomicInteger(1);
+        private volatile CompletableFuture<AmsResponse> hedge;
+
+        private HedgedCall(String endpoint, String tenant, CompletableFuture<AmsResponse> primary) {
+            this.endpoint = endpoint;
+            this.tenant = tenant;
+            this.primary = primary;
+            primary.whenComplete((response, error) -> complete(response, error, false));
+        }
+
+        private void hedge(CompletableFuture<AmsResponse> attempt) {
+            pending.incrementAndGet();
+            hedge = attempt;
+            attempt.whenComplete((response, error) -> complete(response, error, true));
+            if (result.isDone() && attempt.cancel(true)) {
+                count("lost", endpoint, tenant);
+            }
+        }
+
+        private void complete(AmsResponse response, Throwable error, boolean hedged) {
+            int left = pending.decrementAndGet();
+            if (error != null) {
+                // the other attempt may still answer
+                if (left == 0 && !result.isDone()) {
+                    result.completeExceptionally(error);
+                }
+                return;
+            }
+            if (!result.complete(response)) {
+                return;
+            }
+            if (hedged) {
+                primary.cancel(true);
+                count("won", endpoint, tenant);
+            } else if (hedge != null && hedge.cancel(true)) {
+                count("lost", endpoint, tenant);
+            }
+        }
+    }
+
+    /**
+     * The latest latencies of an endpoint, the hedge delay is their percentile, recomputed every 64 responses.
+     */
+    private final class Latencies {
+
+        private final long[] samples = new long[WINDOW];
+        private long count;
+        private volatile long delayMs = -1;
+
+        private synchronized void record(long nanos) {
+            samples[(int) (count % WINDOW)] = nanos;
+            count++;
+            if (count >= MIN_SAMPLES && count % 64 == 0) {
+                long[] sorted = Arrays.copyOf(samples, (int) Math.min(count, WINDOW));
+                Arrays.sort(sorted);
+                long nanosAtPercentile = sorted[(int) Math.min(sorted.length - 1, Math.floor(percentile * sorted.length))];
+                delayMs = Math.max(minDelayMs, TimeUnit.NANOSECONDS.toMillis(nanosAtPercentile));
+            }
+        }
+
+        /**
+         * @return the hedge delay, -1 while hedging is disabled or too few latencies are known
+         */
+        private long delayMs() {
+            return enabled ? delayMs : -1;
+        }
+    }
+}
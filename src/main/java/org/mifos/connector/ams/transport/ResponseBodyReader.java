@@ -0,0 +1,33 @@
+package org.mifos.connector.ams.transport;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.mifos.connector.ams.camel.config.CamelProperties.RESPONSE_TYPE;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import org.apache.camel.Exchange;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reads the body of a Fineract response. Successful responses of calls that name a response type are deserialized
+ * straight from the response stream, without an intermediate String. All other responses, error responses in particular,
+ * are read into a String for the error handling and logging.
+ */
+@Component
+public class ResponseBodyReader {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public Object read(Exchange exchange, int statusCode, InputStream body) throws IOException {
+        try (InputStream in = body) {
+            Class<?> responseType = exchange.getProperty(RESPONSE_TYPE, Class.class);
+            if (responseType != null && statusCode >= 200 && statusCode <= 202) {
+                return objectMapper.readValue(in, responseType);
+            }
+            return new String(in.readAllBytes(), UTF_8);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package org.mifos.connector.ams.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Size bounded, least recently used cache whose entries expire a fixed time after they were stored. The entries are split
+ * over up to 16 segments by key hash, each with its own lock and least recently used order, so concurrent callers rarely
+ * wait for each other.
+ */
+public class ExpiringCache<K, V> {
+
+    private static final int MAX_SEGMENTS = 16;
+    // small caches keep a single segment, so their least recently used order covers all entries
+    private static final int MIN_SEGMENT_SIZE = 16;
+
+    private final long ttlMillis;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final Segment<K, V>[] segments;
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public ExpiringCache(int maxSize, long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+        int count = Integer.highestOneBit(Math.max(1, Math.min(MAX_SEGMENTS, maxSize / MIN_SEGMENT_SIZE)));
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment<>((maxSize + count - 1) / count);
+        }
+    }
+
+    public V get(K key) {
+        Segment<K, V> segment = segment(key);
+        V value;
+        synchronized (segment) {
+            value = segment.live(key);
+        }
+        if (value == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return value;
+    }
+
+    public void put(K key, V value) {
+        Segment<K, V> segment = segment(key);
+        synchronized (segment) {
+            segment.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMillis));
+        }
+    }
+
+    /**
+     * Not counted as a hit or miss.
+     *
+     * @return the live value stored for the key, or null when the value was stored
+     */
+    public V putIfAbsent(K key, V value) {
+        Segment<K, V> segment = segment(key);
+        synchronized (segment) {
+            V existing = segment.live(key);
+            if (existing == null) {
+                segment.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMillis));
+            }
+            return existing;
+        }
+    }
+
+    /**
+     * Loads the value outside the lock on a miss, concurrent misses for the same key may load it more than once.
+     */
+    public V get(K key, Loader<K, V> loader) throws Exception {
+        V value = get(key);
+        if (value == null) {
+            value = loader.load(key);
+            if (value != null) {
+                put(key, value);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Removes the entry only while the key still maps to the value, a value stored for the key since is kept.
+     *
+     * @return whether the entry was removed
+     */
+    public boolean remove(K key, V value) {
+        Segment<K, V> segment = segment(key);
+        synchronized (segment) {
+            Entry<V> entry = segment.get(key);
+            if (entry == null || !entry.value.equals(value)) {
+                return false;
+            }
+            segment.remove(key);
+            return true;
+        }
+    }
+
+    public void invalidate(K key) {
+        Segment<K, V> segment = segment(key);
+        synchronized (segment) {
+            segment.remove(key);
+        }
+    }
+
+    public void clear() {
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    private Segment<K, V> segment(Object key) {
+        int hash = key.hashCode();
+        return segments[(hash ^ hash >>> 16) & segments.length - 1];
+    }
+
+    @FunctionalInterface
+    public interface Loader<K, V> {
+
+        V load(K key) throws Exception;
+    }
+
+    /**
+     * Entries of the keys hashed to one segment in access order, guarded by its monitor.
+     */
+    private static final class Segment<K, V> extends LinkedHashMap<K, Entry<V>> {
+
+        private final int maxSize;
+
+        private Segment(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        /**
+         * @return the value of the key, null if there is none or it expired
+         */
+        private V live(Object key) {
+            Entry<V> entry = get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt < System.currentTimeMillis()) {
+                remove(key);
+                return null;
+            }
+            return entry.value;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+            return size() > maxSize;
+        }
+    }
+
+    private static final class Entry<V> {
+
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
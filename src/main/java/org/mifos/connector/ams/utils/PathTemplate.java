@@ -0,0 +1,72 @@
+package org.mifos.connector.ams.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A request path with {name} placeholders, parsed once. {@link #expand(String...)} takes the values in the order of the
+ * parameter names given to {@link #compile(String, String...)}, wherever the placeholders are in the configured path.
+ * Placeholders that are no parameter stay in the path as they are.
+ */
+public final class PathTemplate {
+
+    private final String template;
+    private final String[] literals;
+    private final int[] parameters;
+    private final int literalLength;
+
+    private PathTemplate(String template, String[] literals, int[] parameters) {
+        this.template = template;
+        this.literals = literals;
+        this.parameters = parameters;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    public static PathTemplate compile(String template, String... parameterNames) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> parameters = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int position = 0;
+        while (position < template.length()) {
+            int start = template.indexOf('{', position);
+            int end = start < 0 ? -1 : template.indexOf('}', start);
+            if (end < 0) {
+                literal.append(template, position, template.length());
+                break;
+            }
+            int parameter = List.of(parameterNames).indexOf(template.substring(start + 1, end));
+            if (parameter < 0) {
+                literal.append(template, position, end + 1);
+            } else {
+                literal.append(template, position, start);
+                literals.add(literal.toString());
+                parameters.add(parameter);
+                literal.setLength(0);
+            }
+            position = end + 1;
+        }
+        literals.add(literal.toString());
+        return new PathTemplate(template, literals.toArray(new String[0]), parameters.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    public String expand(String... values) {
+        int length = literalLength;
+        for (int parameter : parameters) {
+            length += String.valueOf(values[parameter]).length();
+        }
+        StringBuilder path = new StringBuilder(length).append(literals[0]);
+        for (int i = 0; i < parameters.length; i++) {
+            path.append(values[parameters[i]]).append(literals[i + 1]);
+        }
+        return path.toString();
+    }
+
+    @Override
+    public String toString() {
+        return template;
+    }
+}
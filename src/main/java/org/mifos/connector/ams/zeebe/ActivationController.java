@@ -0,0 +1,262 @@
+package org.mifos.connector.ams.zeebe;
+
+import io.camunda.zeebe.client.api.response.ActivatedJob;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongConsumer;
+import javax.annotation.PostConstruct;
+import org.apache.camel.CamelContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adjusts the max active jobs and poll interval of every job type from the handler latency, the jobs in flight and the rate
+ * of failed Fineract calls observed since the previous evaluation. A degraded Fineract halves the activated jobs and slows
+ * polling down, saturated workers on a healthy Fineract get more jobs and poll at the shortest interval, idle workers poll
+ * less often.
+ */
+@Component
+public class ActivationController {
+
+    public static final String ACTIVATION_METRIC = "zeebe.activation";
+
+    private Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CamelContext camelContext;
+
+    @Value("${zeebe.client.activation.adaptive:true}")
+    private boolean adaptive;
+
+    @Value("${zeebe.client.activation.interval-ms:5000}")
+    private long intervalMs;
+
+    @Value("${zeebe.client.activation.min-max-jobs-active:8}")
+    private int minMaxJobsActive;
+
+    @Value("${zeebe.client.evenly-allocated-max-jobs}")
+    private int maxMaxJobsActive;
+
+    @Value("${zeebe.client.activation.min-poll-interval-ms:1}")
+    private long minPollIntervalMs;
+
+    @Value("${zeebe.client.activation.max-poll-interval-ms:1000}")
+    private long maxPollIntervalMs;
+
+    @Value("${zeebe.client.activation.latency-target-ms:2000}")
+    private long latencyTargetMs;
+
+    @Value("${zeebe.client.activation.error-rate-threshold:0.2}")
+    private double errorRateThreshold;
+
+    // jobs not seen again within the job timeout were failed or timed out by the broker
+    @Value("${zeebe.client.activation.stale-job-ms:300000}")
+    private long staleJobMs;
+
+    private final Map<String, JobTypeState> states = new ConcurrentHashMap<>();
+    private final Map<Long, Started> startedJobs = new ConcurrentHashMap<>();
+    private volatile LongConsumer finishedListener = jobKey -> {};
+
+    @PostConstruct
+    public void setup() {
+        // also without adaptive activation, stale jobs have to be released
+        camelContext.getExecutorServiceManager().newSingleThreadScheduledExecutor(this, "zeebe-activation-controller")
+                .scheduleWithFixedDelay(this::evaluate, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param listener called with the key of a job for every activation of it that finished, whether completed, failed or
+     *                 gone stale
+     */
+    public void onJobFinished(LongConsumer listener) {
+        this.finishedListener = listener;
+    }
+
+    public ActivationSettings settings(String jobType) {
+        return states.computeIfAbsent(jobType, this::newState).settings;
+    }
+
+    public int inFlight(String jobType) {
+        JobTypeState state = states.get(jobType);
+        return state == null ? 0 : state.inFlight.get();
+    }
+
+    /**
+     * Counts the jobs requested by an activation as in flight from the request on, also while they wait for a handler
+     * thread, see {@link #jobsNotActivated(String, int)} for the jobs the activation did not return.
+     */
+    public void jobsRequested(String jobType, int jobs) {
+        states.computeIfAbsent(jobType, this::newState).inFlight.addAndGet(jobs);
+    }
+
+    public void jobsNotActivated(String jobType, int jobs) {
+        states.computeIfAbsent(jobType, this::newState).inFlight.addAndGet(-jobs);
+    }
+
+    /**
+     * Called once per activation of the job. A job activated again after its timeout while its first activation is still
+     * running counts once per activation.
+     */
+    public void jobStarted(ActivatedJob job) {
+        JobTypeState state = states.computeIfAbsent(job.getType(), this::newState);
+        long startedAt = System.nanoTime();
+        startedJobs.compute(job.getKey(), (jobKey, started) -> {
+            Started activations = started != null ? started : new Started(state);
+            activations.startedAt.add(startedAt);
+            return activations;
+        });
+    }
+
+    /**
+     * Called when an activation of the job is completed or failed, calls for a job without a running activation are
+     * ignored.
+     */
+    public void jobFinished(long jobKey) {
+        Started[] finished = new Started[1];
+        long[] startedAt = new long[1];
+        startedJobs.computeIfPresent(jobKey, (key, started) -> {
+            finished[0] = started;
+            // the oldest activation, earlier activations finish first as a rule
+            startedAt[0] = started.startedAt.remove();
+            return started.startedAt.isEmpty() ? null : started;
+        });
+        if (finished[0] != null) {
+            JobTypeState state = finished[0].state;
+            state.inFlight.decrementAndGet();
+            state.finished.increment();
+            state.latencyNanos.add(System.nanoTime() - startedAt[0]);
+            finishedListener.accept(jobKey);
+        }
+    }
+
+    /**
+     * @param amsFailed whether the Fineract call of the route failed with a server error or did not get a response
+     */
+    public void routeFinished(String jobType, boolean amsFailed) {
+        JobTypeState state = states.get(jobType);
+        if (state != null) {
+            state.calls.increment();
+            if (amsFailed) {
+                state.failedCalls.increment();
+            }
+        }
+    }
+
+    private JobTypeState newState(String jobType) {
+        JobTypeState state = new JobTypeState(jobType, new ActivationSettings(maxMaxJobsActive, Duration.ofMillis(minPollIntervalMs)));
+        Gauge.builder(ACTIVATION_METRIC + ".max-jobs-active", state, s -> s.settings.getMaxJobsActive()).tag("jobType", jobType)
+                .register(meterRegistry);
+        Gauge.builder(ACTIVATION_METRIC + ".poll-interval", state, s -> s.settings.getPollInterval().toMillis()).baseUnit("milliseconds")
+                .tag("jobType", jobType).register(meterRegistry);
+        Gauge.builder(ACTIVATION_METRIC + ".in-flight", state, s -> s.inFlight.get()).tag("jobType", jobType).register(meterRegistry);
+        return state;
+    }
+
+    private void evaluate() {
+        try {
+            long staleBefore = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(staleJobMs);
+            startedJobs.keySet().forEach(jobKey -> {
+                int[] stale = new int[1];
+                Started[] activations = new Started[1];
+                startedJobs.computeIfPresent(jobKey, (key, started) -> {
+                    activations[0] = started;
+                    while (!started.startedAt.isEmpty() && started.startedAt.peek() - staleBefore < 0) {
+                        started.startedAt.remove();
+                        stale[0]++;
+                    }
+                    return started.startedAt.isEmpty() ? null : started;
+                });
+                for (int i = 0; i < stale[0]; i++) {
+                    activations[0].state.inFlight.decrementAndGet();
+                    finishedListener.accept(jobKey);
+                }
+            });
+            if (adaptive) {
+                states.values().forEach(this::evaluate);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Failed to evaluate zeebe job activation", e);
+        }
+    }
+
+    private void evaluate(JobTypeState state) {
+        long finished = state.finished.sumThenReset();
+        long latencyMs = finished == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(state.latencyNanos.sumThenReset() / finished);
+        long calls = state.calls.sumThenReset();
+        double errorRate = calls == 0 ? 0 : (double) state.failedCalls.sumThenReset() / calls;
+        int inFlight = state.inFlight.get();
+
+        int maxJobsActive = state.settings.getMaxJobsActive();
+        long pollIntervalMs = state.settings.getPollInterval().toMillis();
+        String decision;
+        if (errorRate > errorRateThreshold || latencyMs > latencyTargetMs) {
+            decision = "backoff";
+            maxJobsActive = Math.max(minMaxJobsActive, maxJobsActive / 2);
+            pollIntervalMs = Math.min(maxPollIntervalMs, Math.max(1, pollIntervalMs) * 2);
+        } else if (finished == 0 && inFlight == 0) {
+            decision = "idle";
+            pollIntervalMs = Math.min(maxPollIntervalMs, Math.max(1, pollIntervalMs) * 2);
+        } else if (inFlight >= maxJobsActive * 0.8) {
+            decision = "rampup";
+            maxJobsActive = Math.min(maxMaxJobsActive, maxJobsActive + Math.max(1, maxJobsActive / 4));
+            pollIntervalMs = minPollIntervalMs;
+        } else {
+            decision = "steady";
+            pollIntervalMs = Math.max(minPollIntervalMs, pollIntervalMs / 2);
+        }
+
+        ActivationSettings settings = new ActivationSettings(maxJobsActive, Duration.ofMillis(pollIntervalMs));
+        if (settings.equals(state.settings)) {
+            return;
+        }
+        logger.info("Job type {} {}: {} (latency {} ms, error rate {}, in flight {})", state.jobType, decision, settings, latencyMs,
+                errorRate, inFlight);
+        Counter.builder(ACTIVATION_METRIC + ".decisions").tag("jobType", state.jobType).tag("decision", decision).register(meterRegistry)
+                .increment();
+        state.settings = settings;
+    }
+
+    private static final class JobTypeState {
+
+        private final String jobType;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final LongAdder finished = new LongAdder();
+        private final LongAdder latencyNanos = new LongAdder();
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder failedCalls = new LongAdder();
+        private volatile ActivationSettings settings;
+
+        private JobTypeState(String jobType, ActivationSettings settings) {
+            this.jobType = jobType;
+            this.settings = settings;
+        }
+    }
+
+    /**
+     * The running activations of a job, guarded by the map entry of the job.
+     */
+    private static final class Started {
+
+        private final JobTypeState state;
+        // start times in nanos, oldest first
+        private final ArrayDeque<Long> startedAt = new ArrayDeque<>(1);
+
+        private Started(JobTypeState state) {
+            this.state = state;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package org.mifos.connector.ams.zeebe;
+
+import java.time.Duration;
+import java.util.Objects;
+
+public class ActivationSettings {
+
+    private final int maxJobsActive;
+    private final Duration pollInterval;
+
+    public ActivationSettings(int maxJobsActive, Duration pollInterval) {
+        this.maxJobsActive = maxJobsActive;
+        this.pollInterval = pollInterval;
+    }
+
+    public int getMaxJobsActive() {
+        return maxJobsActive;
+    }
+
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ActivationSettings that = (ActivationSettings) o;
+        return maxJobsActive == that.maxJobsActive && Objects.equals(pollInterval, that.pollInterval);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(maxJobsActive, pollInterval);
+    }
+
+    @Override
+    public String toString() {
+        return "maxJobsActive=" + maxJobsActive + ", pollInterval=" + pollInterval.toMillis() + "ms";
+    }
+}
@@ -0,0 +1,89 @@
+package org.mifos.connector.ams.zeebe;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Objects;
+import javax.annotation.PostConstruct;
+import org.mifos.connector.ams.utils.ExpiringCache;
+import org.mifos.connector.common.channel.dto.TransactionChannelRequestDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Parsed channel requests shared by the zeebe workers and camel processors of a transaction. Returned requests are shared
+ * between callers and must not be modified.
+ */
+@Component
+public class ChannelRequestCache {
+
+    public static final String CACHE_METRIC = "ams.cache.channel.request";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${cache.channel-request.max-size:10000}")
+    private int maxSize;
+
+    @Value("${cache.channel-request.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    private ExpiringCache<Key, TransactionChannelRequestDTO> cache;
+
+    @PostConstruct
+    public void setup() {
+        cache = new ExpiringCache<>(maxSize, ttlSeconds * 1000);
+        FunctionCounter.builder(CACHE_METRIC + ".requests", cache, ExpiringCache::hits).tag("result", "hit").register(meterRegistry);
+        FunctionCounter.builder(CACHE_METRIC + ".requests", cache, ExpiringCache::misses).tag("result", "miss").register(meterRegistry);
+        Gauge.builder(CACHE_METRIC + ".size", cache, ExpiringCache::size).register(meterRegistry);
+    }
+
+    public TransactionChannelRequestDTO get(String transactionId, String channelRequest) throws Exception {
+        return cache.get(new Key(transactionId, channelRequest),
+                k -> objectMapper.readValue(channelRequest, TransactionChannelRequestDTO.class));
+    }
+
+    /**
+     * Transaction id and a digest of the channel request text, the 64-bit FNV-1a hash of its characters and its length. A
+     * rewritten channel request of the same transaction gets a new key, and the cache does not keep the raw text alive
+     * next to the parsed request.
+     */
+    private static final class Key {
+
+        private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+        private static final long FNV_PRIME = 0x100000001b3L;
+
+        private final String transactionId;
+        private final long digest;
+        private final int length;
+
+        private Key(String transactionId, String channelRequest) {
+            this.transactionId = transactionId;
+            long hash = FNV_OFFSET_BASIS;
+            for (int i = 0; i < channelRequest.length(); i++) {
+                hash = (hash ^ channelRequest.charAt(i)) * FNV_PRIME;
+            }
+            this.digest = hash;
+            this.length = channelRequest.length();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return digest == other.digest && length == other.length && Objects.equals(transactionId, other.transactionId);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Objects.hashCode(transactionId) + Long.hashCode(digest);
+        }
+    }
+}
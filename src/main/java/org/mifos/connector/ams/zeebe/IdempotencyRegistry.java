@@ -0,0 +1,82 @@
+package org.mifos.connector.ams.zeebe;
+
+import static org.mifos.connector.ams.zeebe.ZeebeVariables.ERROR_CODE;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import javax.annotation.PostConstruct;
+import org.mifos.connector.ams.utils.ExpiringCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Executions of Fineract transfers by transaction, transfer action and role. A job redelivered by zeebe after a timeout
+ * or a lost completion finds the execution of the first delivery and replays its completion variables instead of sending
+ * the transfer to Fineract again. Failed executions are forgotten, so the next delivery executes again.
+ */
+@Component
+public class IdempotencyRegistry {
+
+    public static final String IDEMPOTENCY_METRIC = "zeebe.job.idempotency";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${zeebe.client.idempotency.max-size:10000}")
+    private int maxSize;
+
+    @Value("${zeebe.client.idempotency.ttl-seconds:900}")
+    private long ttlSeconds;
+
+    private ExpiringCache<String, CompletableFuture<Map<String, Object>>> executions;
+
+    @PostConstruct
+    public void setup() {
+        executions = new ExpiringCache<>(maxSize, ttlSeconds * 1000);
+        Gauge.builder(IDEMPOTENCY_METRIC + ".size", executions, ExpiringCache::size).register(meterRegistry);
+    }
+
+    public static String key(Object transactionId, Object transferAction, Object role) {
+        return transactionId + ":" + transferAction + ":" + role;
+    }
+
+    /**
+     * @param execution completed with the variables of the caller's execution, if it is the first
+     * @return null if the caller executes the key first, otherwise the completion variables of the first execution, which
+     *         may still be running
+     */
+    public CompletableFuture<Map<String, Object>> begin(String key, CompletableFuture<Map<String, Object>> execution) {
+        CompletableFuture<Map<String, Object>> first = executions.putIfAbsent(key, execution);
+        String result = first == null ? "executed" : first.isDone() ? "replayed" : "waited";
+        Counter.builder(IDEMPOTENCY_METRIC).tag("result", result).register(meterRegistry).increment();
+        return first;
+    }
+
+    /**
+     * Stores the completion variables of the execution, variables carrying an error code release it instead.
+     */
+    public void completed(String key, CompletableFuture<Map<String, Object>> execution, Map<String, Object> variables) {
+        if (variables.containsKey(ERROR_CODE)) {
+            release(key, execution);
+            return;
+        }
+        execution.complete(Collections.unmodifiableMap(new HashMap<>(variables)));
+    }
+
+    /**
+     * Forgets the execution unless it completed, waiting duplicates fail and are delivered again by zeebe. An execution
+     * registered for the key by a later delivery is kept.
+     */
+    public void release(String key, CompletableFuture<Map<String, Object>> execution) {
+        if (!execution.isDone()) {
+            executions.remove(key, execution);
+            execution.completeExceptionally(new IllegalStateException("Execution of " + key + " failed"));
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package org.mifos.connector.ams.zeebe;
+
+import static org.mifos.connector.ams.logging.HotPathLogging.MDC_JOB_KEY;
+import static org.mifos.connector.ams.logging.HotPathLogging.MDC_JOB_TYPE;
+import static org.mifos.connector.ams.zeebe.ZeebeClientConfiguration.EXECUTION_MODE_PLATFORM;
+import static org.mifos.connector.ams.zeebe.ZeebeClientConfiguration.EXECUTION_MODE_VIRTUAL;
+
+import io.camunda.zeebe.client.ZeebeClient;
+import io.camunda.zeebe.client.api.response.ActivatedJob;
+import io.camunda.zeebe.client.api.worker.JobHandler;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.apache.camel.CamelContext;
+import org.mifos.connector.ams.logging.HotPathLogging;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Activates jobs of every registered job type with a fixed number of pollers instead of one zeebe job worker per job
+ * type, so the number of pollers does not grow with the dfspids. Each poller cycles through its share of the dispatch
+ * table and activates a job type again once its previous activation returned. The activation settings of the
+ * {@link ActivationController} limit every job type, max-jobs-active limits all job types together: a requested job counts
+ * from the activation request until it is completed, failed or gone stale, also while it waits for a handler thread and
+ * after its handler returned, see {@link ActivationController#onJobFinished(java.util.function.LongConsumer)}. Permits
+ * are counted per activation, a job activated again after its timeout holds one per activation.
+ */
+@Component
+public class JobDispatcher {
+
+    public static final String DISPATCHER_METRIC = "zeebe.dispatcher";
+
+    private Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    @Autowired(required = false)
+    private ZeebeClient zeebeClient;
+
+    @Autowired
+    private ActivationController activationController;
+
+    @Autowired
+    private JobMetrics jobMetrics;
+
+    @Autowired
+    private CamelContext camelContext;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${zeebe.client.dispatcher.pollers:2}")
+    private int pollers;
+
+    @Value("${zeebe.client.dispatcher.max-jobs-active:2000}")
+    private int maxJobsActive;
+
+    @Value("${zeebe.client.dispatcher.tick-ms:5}")
+    private long tickMs;
+
+    @Value("${zeebe.client.max-execution-threads}")
+    private int maxExecutionThreads;
+
+    @Value("${zeebe.client.execution-mode:" + EXECUTION_MODE_PLATFORM + "}")
+    private String executionMode;
+
+    private final Map<String, JobType> dispatchTable = new ConcurrentHashMap<>();
+    private Semaphore capacity;
+    private ExecutorService handlerExecutor;
+
+    public void register(String jobType, List<String> variables, JobHandler handler) {
+        Counter activated = Counter.builder(DISPATCHER_METRIC + ".activated").tag("jobType", jobType).register(meterRegistry);
+        if (dispatchTable.putIfAbsent(jobType, new JobType(jobType, variables, handler, activated)) != null) {
+            throw new IllegalStateException("Job type " + jobType + " is already registered");
+        }
+        activationController.settings(jobType);
+    }
+
+    /**
+     * Starts polling for the registered job types, called once all of them are registered.
+     */
+    public void start() {
+        capacity = new Semaphore(maxJobsActive);
+        activationController.onJobFinished(jobKey -> capacity.release());
+        if (EXECUTION_MODE_VIRTUAL.equals(executionMode)) {
+            // job handlers, and the blocking cxfrs calls they make, run on virtual threads instead of pooled platform threads
+            handlerExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("zeebe-job-", 0).factory());
+        } else {
+            handlerExecutor = camelContext.getExecutorServiceManager().newFixedThreadPool(this, "zeebe-job", maxExecutionThreads);
+        }
+
+        List<List<JobType>> assigned = new ArrayList<>();
+        for (int i = 0; i < pollers; i++) {
+            assigned.add(new ArrayList<>());
+        }
+        int next = 0;
+        for (JobType jobType : dispatchTable.values()) {
+            assigned.get(next++ % pollers).add(jobType);
+        }
+        for (int i = 0; i < pollers; i++) {
+            List<JobType> jobTypes = assigned.get(i);
+            camelContext.getExecutorServiceManager().newSingleThreadScheduledExecutor(this, "zeebe-poller-" + i)
+                    .scheduleWithFixedDelay(() -> poll(jobTypes), 0, tickMs, TimeUnit.MILLISECONDS);
+        }
+        logger.info("Dispatching {} job types with {} pollers, execution mode: {}", dispatchTable.size(), pollers, executionMode);
+
+        Gauge.builder(DISPATCHER_METRIC + ".job-types", dispatchTable, Map::size).register(meterRegistry);
+        Gauge.builder(DISPATCHER_METRIC + ".active-jobs", capacity, s -> maxJobsActive - s.availablePermits()).register(meterRegistry);
+    }
+
+    private void poll(List<JobType> jobTypes) {
+        long now = System.currentTimeMillis();
+        for (JobType jobType : jobTypes) {
+            if (!jobType.activating && now >= jobType.nextPollAt) {
+                try {
+                    activate(jobType);
+                } catch (RuntimeException e) {
+                    jobType.activating = false;
+                    logger.error("Failed to activate jobs of type {}", jobType.name, e);
+                }
+            }
+        }
+    }
+
+    private void activate(JobType jobType) {
+        ActivationSettings settings = activationController.settings(jobType.name);
+        int wanted = Math.min(settings.getMaxJobsActive() - activationController.inFlight(jobType.name), capacity.availablePermits());
+        if (wanted <= 0 || !capacity.tryAcquire(wanted)) {
+            return;
+        }
+        activationController.jobsRequested(jobType.name, wanted);
+        jobType.activating = true;
+        try {
+            send(jobType, settings, wanted);
+        } catch (RuntimeException e) {
+            capacity.release(wanted);
+            activationController.jobsNotActivated(jobType.name, wanted);
+            throw e;
+        }
+    }
+
+    private void send(JobType jobType, ActivationSettings settings, int wanted) {
+        zeebeClient.newActivateJobsCommand().jobType(jobType.name).maxJobsToActivate(wanted)
+                .timeout(zeebeClient.getConfiguration().getDefaultJobTimeout())
+                .workerName(zeebeClient.getConfiguration().getDefaultJobWorkerName()).fetchVariables(jobType.variables).send()
+                .whenComplete((response, error) -> {
+                    long activatedAt = System.nanoTime();
+                    List<ActivatedJob> jobs = error == null ? response.getJobs() : List.of();
+                    capacity.release(wanted - jobs.size());
+                    activationController.jobsNotActivated(jobType.name, wanted - jobs.size());
+                    if (error != null) {
+                        logger.warn("Failed to activate jobs of type {}: {}", jobType.name, error.getMessage());
+                    }
+                    // keep pulling while there is work, otherwise wait for the poll interval
+                    jobType.nextPollAt = jobs.isEmpty() ? System.currentTimeMillis() + settings.getPollInterval().toMillis() : 0;
+                    jobType.activating = false;
+                    if (!jobs.isEmpty()) {
+                        jobType.activated.increment(jobs.size());
+                    }
+                    for (ActivatedJob job : jobs) {
+                        handlerExecutor.execute(() -> handle(jobType, job, activatedAt));
+                    }
+                });
+    }
+
+    private void handle(JobType jobType, ActivatedJob job, long activatedAt) {
+        long startedAt = System.nanoTime();
+        activationController.jobStarted(job);
+        HotPathLogging.correlate(MDC_JOB_KEY, job.getKey());
+        HotPathLogging.correlate(MDC_JOB_TYPE, job.getType());
+        String outcome = "success";
+        try {
+            jobType.handler.handle(zeebeClient, job);
+        } catch (Exception e) {
+            outcome = "failure";
+            logger.error("Handler failed for job {} of type {}", job.getKey(), job.getType(), e);
+            activationController.jobFinished(job.getKey());
+            zeebeClient.newFailCommand(job.getKey()).retries(Math.max(job.getRetries() - 1, 0)).errorMessage(e.getMessage()).send();
+        } finally {
+            // the tenant is only known once the handler correlated it
+            String tenant = JobMetrics.currentTenant();
+            jobMetrics.recordStartDelay(jobType.name, tenant, startedAt - activatedAt);
+            jobMetrics.recordHandler(jobType.name, tenant, outcome, System.nanoTime() - startedAt);
+            HotPathLogging.clearCorrelation();
+        }
+    }
+
+    private static final class JobType {
+
+        private final String name;
+        private final List<String> variables;
+        private final JobHandler handler;
+        private final Counter activated;
+        private volatile boolean activating;
+        private volatile long nextPollAt;
+
+        private JobType(String name, List<String> variables, JobHandler handler, Counter activated) {
+            this.name = name;
+            this.variables = variables;
+            this.handler = handler;
+            this.activated = activated;
+        }
+    }
+}
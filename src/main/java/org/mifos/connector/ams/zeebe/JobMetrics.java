@@ -0,0 +1,132 @@
+package org.mifos.connector.ams.zeebe;
+
+import static org.mifos.connector.ams.camel.config.CamelProperties.ZEEBE_JOB_TYPE;
+import static org.mifos.connector.ams.logging.HotPathLogging.MDC_JOB_TYPE;
+import static org.mifos.connector.ams.logging.HotPathLogging.MDC_TENANT;
+import static org.mifos.connector.ams.zeebe.ZeebeVariables.TENANT_ID;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.apache.camel.Exchange;
+import org.mifos.connector.common.exception.PaymentHubError;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per job type metrics of the job stages, tagged by job type, dfsp and tenant: the delay between activation and the
+ * start of the handler, the handler time, the Fineract calls, the completion latency and the error codes. Timers publish
+ * percentile histograms, so latencies can be aggregated across instances in Prometheus.
+ */
+@Component
+public class JobMetrics {
+
+    public static final String JOB_METRIC = "zeebe.job";
+    public static final String START_DELAY_METRIC = JOB_METRIC + ".start.delay";
+    public static final String HANDLER_METRIC = JOB_METRIC + ".handler";
+    public static final String ERRORS_METRIC = JOB_METRIC + ".errors";
+    public static final String DEFERRED_METRIC = JOB_METRIC + ".deferred";
+    public static final String FINERACT_METRIC = "ams.fineract.call";
+
+    public static final String NONE = "none";
+    private static final String UNMAPPED = "unmapped";
+    private static final Duration MIN_EXPECTED = Duration.ofMillis(1);
+    private static final Duration MAX_EXPECTED = Duration.ofSeconds(60);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("#{'${dfspids}'.split(',')}")
+    private List<String> dfspids;
+
+    private final Map<String, String> dfspByJobType = new ConcurrentHashMap<>();
+
+    /**
+     * @return the dfspid the job type is registered for, job types shared by all dfspids have none
+     */
+    public String dfsp(String jobType) {
+        if (jobType == null) {
+            return NONE;
+        }
+        return dfspByJobType.computeIfAbsent(jobType, t -> dfspids.stream().filter(t::endsWith).findFirst().orElse(NONE));
+    }
+
+    public Tags tags(String jobType, String tenant) {
+        String type = jobType != null ? jobType : NONE;
+        return Tags.of("jobType", type, "dfsp", dfsp(type), "tenant", tenant != null ? tenant : NONE);
+    }
+
+    /**
+     * @return the tenant the current job is handled for, as correlated by the job handler
+     */
+    public static String currentTenant() {
+        return MDC.get(MDC_TENANT);
+    }
+
+    /**
+     * @return the type of the job handled by the current thread
+     */
+    public static String currentJobType() {
+        return MDC.get(MDC_JOB_TYPE);
+    }
+
+    public void recordStartDelay(String jobType, String tenant, long nanos) {
+        timer(START_DELAY_METRIC, tags(jobType, tenant)).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordHandler(String jobType, String tenant, String outcome, long nanos) {
+        timer(HANDLER_METRIC, tags(jobType, tenant).and("outcome", outcome)).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordCompletion(String jobType, String tenant, String outcome, long nanos) {
+        timer(ZeebeCompletionService.COMPLETION_METRIC, tags(jobType, tenant).and("outcome", outcome)).record(nanos,
+                TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records a call to Fineract made for the job the exchange belongs to, calls made outside of jobs have job type none.
+     */
+    public void recordFineractCall(Exchange exchange, String endpoint, long nanos) {
+        Integer status = exchange.getException() != null ? null : exchange.getIn().getHeader(Exchange.HTTP_RESPONSE_CODE, Integer.class);
+        recordFineractCall(exchange.getProperty(ZEEBE_JOB_TYPE, String.class), exchange.getProperty(TENANT_ID, String.class), endpoint,
+                status, nanos);
+    }
+
+    /**
+     * @param status the http status of the response, null if no response was received
+     */
+    public void recordFineractCall(String jobType, String tenant, String endpoint, Integer status, long nanos) {
+        String outcome = status == null ? "error" : status / 100 + "xx";
+        timer(FINERACT_METRIC, tags(jobType, tenant).and("endpoint", endpoint, "status", outcome)).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Counts a job completed with an error code, codes that are no {@link PaymentHubError} are counted as unmapped.
+     */
+    public void countError(String jobType, String tenant, Object errorCode) {
+        String code;
+        try {
+            code = PaymentHubError.fromCode(String.valueOf(errorCode)).getErrorCode();
+        } catch (RuntimeException e) {
+            code = UNMAPPED;
+        }
+        Counter.builder(ERRORS_METRIC).tags(tags(jobType, tenant)).tag("errorCode", code).register(meterRegistry).increment();
+    }
+
+    public void countDeferred(String jobType, String tenant) {
+        Counter.builder(DEFERRED_METRIC).tags(tags(jobType, tenant)).register(meterRegistry).increment();
+    }
+
+    private Timer timer(String name, Tags tags) {
+        return Timer.builder(name).tags(tags).publishPercentileHistogram().minimumExpectedValue(MIN_EXPECTED)
+                .maximumExpectedValue(MAX_EXPECTED).register(meterRegistry);
+    }
+}
@@ -0,0 +1,69 @@
+package org.mifos.connector.ams.zeebe;
+
+import io.camunda.zeebe.client.api.response.ActivatedJob;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Variables of an activated job that remembers which entries a handler changed, so only those are sent back on completion.
+ * Created with the variables a worker declared, reading any other variable it did not set itself throws, instead of
+ * returning null because the variable was not fetched.
+ */
+public class JobVariables extends HashMap<String, Object> {
+
+    private final Set<String> changed = new LinkedHashSet<>();
+    private final Set<String> declared;
+
+    public JobVariables(Map<String, Object> activated) {
+        this(activated, null);
+    }
+
+    /**
+     * @param declared the variables the worker fetches, null to allow reading any variable
+     */
+    public JobVariables(Map<String, Object> activated, Set<String> declared) {
+        super(activated);
+        this.declared = declared;
+    }
+
+    public static JobVariables of(ActivatedJob job) {
+        return new JobVariables(job.getVariablesAsMap());
+    }
+
+    @Override
+    public Object get(Object name) {
+        if (declared != null && !declared.contains(name) && !changed.contains(name)) {
+            throw new IllegalStateException("Zeebe variable " + name + " is read but not in the fetched variables " + declared);
+        }
+        return super.get(name);
+    }
+
+    @Override
+    public Object put(String name, Object value) {
+        boolean present = containsKey(name);
+        Object previous = super.put(name, value);
+        if (!present || !Objects.equals(previous, value)) {
+            changed.add(name);
+        }
+        return previous;
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ?> variables) {
+        variables.forEach(this::put);
+    }
+
+    /**
+     * @return the variables set since activation, with their current values
+     */
+    public Map<String, Object> changed() {
+        Map<String, Object> delta = new HashMap<>();
+        for (String name : changed) {
+            delta.put(name, get(name));
+        }
+        return delta;
+    }
+}
@@ -1,7 +1,6 @@
 package org.mifos.connector.ams.zeebe;
 
 import io.camunda.zeebe.client.ZeebeClient;
-import java.time.Duration;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.context.annotation.Bean;
@@ -11,16 +10,15 @@ import org.springframework.context.annotation.Configuration;
 @ConditionalOnExpression("${zeebe.enabled:true}")
 public class ZeebeClientConfiguration {
 
+    public static final String EXECUTION_MODE_PLATFORM = "platform";
+    public static final String EXECUTION_MODE_VIRTUAL = "virtual";
+
     @Value("${zeebe.broker.contactpoint}")
     private String zeebeBrokerContactpoint;
 
-    @Value("${zeebe.client.max-execution-threads}")
-    private int zeebeClientMaxThreads;
-
+    // jobs are activated and handled by the JobDispatcher, the client opens no job workers
     @Bean
     public ZeebeClient setup() {
-        return ZeebeClient.newClientBuilder().gatewayAddress(zeebeBrokerContactpoint).usePlaintext()
-                .defaultJobPollInterval(Duration.ofMillis(1)).defaultJobWorkerMaxJobsActive(2000)
-                .numJobWorkerExecutionThreads(zeebeClientMaxThreads).build();
+        return ZeebeClient.newClientBuilder().gatewayAddress(zeebeBrokerContactpoint).usePlaintext().build();
     }
 }
@@ -0,0 +1,197 @@
+package org.mifos.connector.ams.zeebe;
+
+import static org.mifos.connector.ams.camel.config.CamelProperties.IDEMPOTENCY_EXECUTION;
+import static org.mifos.connector.ams.camel.config.CamelProperties.IDEMPOTENCY_KEY;
+import static org.mifos.connector.ams.camel.config.CamelProperties.ZEEBE_JOB_KEY;
+import static org.mifos.connector.ams.camel.config.CamelProperties.ZEEBE_JOB_TYPE;
+import static org.mifos.connector.ams.zeebe.ZeebeVariables.ERROR_CODE;
+import static org.mifos.connector.ams.zeebe.ZeebeVariables.TENANT_ID;
+
+import io.camunda.zeebe.client.ZeebeClient;
+import io.camunda.zeebe.client.api.command.ClientStatusException;
+import io.camunda.zeebe.client.api.response.ActivatedJob;
+import io.grpc.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sends every job completion of the connector. At most max-in-flight completions are outstanding at the broker, the rest
+ * wait in a queue, so callers never block. Completions failing with a transient gRPC status are retried with exponential
+ * backoff instead of letting the job time out and repeat its Fineract call. A job counts as active for the
+ * {@link JobDispatcher} until the broker acknowledged its completion or it was given up, so a slow broker slows the
+ * activation of new jobs down instead of growing the queue.
+ */
+@Component
+public class ZeebeCompletionService {
+
+    public static final String COMPLETION_METRIC = "zeebe.job.completion";
+    public static final String COMPLETION_BYTES_METRIC = COMPLETION_METRIC + ".bytes";
+
+    private static final long MAX_BACKOFF_MS = 10_000;
+    private static final Set<Status.Code> TRANSIENT_CODES = Set.of(Status.Code.UNAVAILABLE, Status.Code.RESOURCE_EXHAUSTED,
+            Status.Code.DEADLINE_EXCEEDED);
+
+    private Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    @Autowired(required = false)
+    private ZeebeClient zeebeClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CamelContext camelContext;
+
+    @Autowired
+    private ActivationController activationController;
+
+    @Autowired
+    private JobMetrics jobMetrics;
+
+    @Autowired
+    private IdempotencyRegistry idempotencyRegistry;
+
+    @Value("${zeebe.client.completion.max-in-flight:500}")
+    private int maxInFlight;
+
+    @Value("${zeebe.client.completion.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${zeebe.client.completion.backoff-ms:100}")
+    private long backoffMs;
+
+    private final Queue<Completion> pending = new ConcurrentLinkedQueue<>();
+    private final Map<String, DistributionSummary> completionBytes = new ConcurrentHashMap<>();
+    private Semaphore inFlight;
+    private ScheduledExecutorService retryExecutor;
+
+    @PostConstruct
+    public void setup() {
+        inFlight = new Semaphore(maxInFlight);
+        retryExecutor = camelContext.getExecutorServiceManager().newSingleThreadScheduledExecutor(this, "zeebe-completion-retry");
+        Gauge.builder(COMPLETION_METRIC + ".in-flight", inFlight, s -> maxInFlight - s.availablePermits()).register(meterRegistry);
+        Gauge.builder(COMPLETION_METRIC + ".pending", pending, Queue::size).register(meterRegistry);
+    }
+
+    /**
+     * Completes the job with the variables changed by the handler only, unchanged variables are already in broker state.
+     */
+    public void complete(ActivatedJob job, JobVariables variables) {
+        complete(job, variables.changed());
+    }
+
+    public void complete(ActivatedJob job, Map<String, Object> variables) {
+        complete(job.getKey(), job.getType(), JobMetrics.currentTenant(), variables);
+    }
+
+    /**
+     * Completes the job a camel route was started for, see {@link org.mifos.connector.ams.camel.config.CamelProperties#ZEEBE_JOB_KEY}.
+     */
+    @SuppressWarnings("unchecked")
+    public void complete(Exchange exchange, Map<String, Object> variables) {
+        CompletableFuture<Map<String, Object>> execution = exchange.getProperty(IDEMPOTENCY_EXECUTION, CompletableFuture.class);
+        if (execution != null) {
+            idempotencyRegistry.completed(exchange.getProperty(IDEMPOTENCY_KEY, String.class), execution, variables);
+        }
+        complete(exchange.getProperty(ZEEBE_JOB_KEY, Long.class), exchange.getProperty(ZEEBE_JOB_TYPE, String.class),
+                exchange.getProperty(TENANT_ID, String.class), variables);
+    }
+
+    public void complete(long jobKey, String jobType, String tenant, Map<String, Object> variables) {
+        String json = zeebeClient.getConfiguration().getJsonMapper().toJson(variables);
+        Completion completion = new Completion(jobKey, jobType != null ? jobType : JobMetrics.NONE, tenant, json);
+        completionBytes.computeIfAbsent(completion.jobType, type -> DistributionSummary.builder(COMPLETION_BYTES_METRIC).baseUnit("bytes")
+                .tag("jobType", type).register(meterRegistry)).record(json.getBytes(StandardCharsets.UTF_8).length);
+        if (variables.get(ERROR_CODE) != null) {
+            jobMetrics.countError(completion.jobType, tenant, variables.get(ERROR_CODE));
+        }
+        logger.debug("Completing job {} with variables {}", jobKey, variables.keySet());
+        pending.add(completion);
+        dispatch();
+    }
+
+    private void dispatch() {
+        while (!pending.isEmpty() && inFlight.tryAcquire()) {
+            Completion completion = pending.poll();
+            if (completion == null) {
+                inFlight.release();
+            } else {
+                send(completion);
+            }
+        }
+    }
+
+    private void send(Completion completion) {
+        completion.attempts++;
+        zeebeClient.newCompleteCommand(completion.jobKey).variables(completion.json).send().whenComplete((response, error) -> {
+            if (error == null) {
+                finish(completion, "success");
+                return;
+            }
+            Status.Code code = statusCode(error);
+            if (TRANSIENT_CODES.contains(code) && completion.attempts < maxAttempts) {
+                long backoff = Math.min(backoffMs << (completion.attempts - 1), MAX_BACKOFF_MS);
+                logger.warn("Completion of job {} failed with {}, retrying in {} ms", completion.jobKey, code, backoff);
+                Counter.builder(COMPLETION_METRIC + ".retries").tag("jobType", completion.jobType).register(meterRegistry).increment();
+                retryExecutor.schedule(() -> send(completion), backoff, TimeUnit.MILLISECONDS);
+            } else {
+                logger.error("Completion of job {} of type {} failed after {} attempts", completion.jobKey, completion.jobType,
+                        completion.attempts, error);
+                finish(completion, "failure");
+            }
+        });
+    }
+
+    private void finish(Completion completion, String outcome) {
+        jobMetrics.recordCompletion(completion.jobType, completion.tenant, outcome, System.nanoTime() - completion.createdAt);
+        activationController.jobFinished(completion.jobKey);
+        inFlight.release();
+        dispatch();
+    }
+
+    private static Status.Code statusCode(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof ClientStatusException) {
+            return ((ClientStatusException) cause).getStatusCode();
+        }
+        return Status.fromThrowable(cause).getCode();
+    }
+
+    private static final class Completion {
+
+        private final long jobKey;
+        private final String jobType;
+        private final String tenant;
+        private final String json;
+        private final long createdAt = System.nanoTime();
+        private int attempts;
+
+        private Completion(long jobKey, String jobType, String tenant, String json) {
+            this.jobKey = jobKey;
+            this.jobType = jobType;
+            this.tenant = tenant;
+            this.json = json;
+        }
+    }
+}
@@ -1,12 +1,16 @@
 package org.mifos.connector.ams.zeebe;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import org.mifos.connector.common.ams.dto.TransferActionType;
 
 public final class ZeebeVariables {
 
     public static final Map<String, String> ACTION_FAILURE_MAP = new HashMap<>();
+    // zeebe variables read by camel routes through ZeebeUtil.zeebeVariable, keyed by route endpoint, every route a worker
+    // feeds needs an entry
+    public static final Map<String, List<String>> ROUTE_VARIABLES = new HashMap<>();
 
     public static final String ACCOUNT = "account";
     public static final String ACCOUNT_CURRENCY = "accountCurrency";
@@ -46,6 +50,14 @@ public final class ZeebeVariables {
         ACTION_FAILURE_MAP.put(TransferActionType.PREPARE.name(), TRANSFER_PREPARE_FAILED);
         ACTION_FAILURE_MAP.put(TransferActionType.CREATE.name(), TRANSFER_CREATE_FAILED);
         ACTION_FAILURE_MAP.put(TransferActionType.RELEASE.name(), TRANSFER_RELEASE_FAILED);
+
+        ROUTE_VARIABLES.put("direct:send-transfers",
+                List.of("initiator", "initiatorType", "scenario", NOTE, "amount", "fspFee", "fspCommission"));
+        ROUTE_VARIABLES.put("direct:send-transfers-loan", List.of());
+        ROUTE_VARIABLES.put("direct:send-local-quote", List.of());
+        ROUTE_VARIABLES.put("direct:get-party", List.of());
+        ROUTE_VARIABLES.put("direct:register-party", List.of());
+        ROUTE_VARIABLES.put("direct:send-callback", List.of());
     }
 
     private ZeebeVariables() {}
@@ -1,11 +1,20 @@
 package org.mifos.connector.ams.zeebe;
 
+import static org.mifos.connector.ams.camel.config.CamelProperties.IDEMPOTENCY_EXECUTION;
+import static org.mifos.connector.ams.camel.config.CamelProperties.IDEMPOTENCY_KEY;
 import static org.mifos.connector.ams.camel.config.CamelProperties.PROCESS_TYPE;
 import static org.mifos.connector.ams.camel.config.CamelProperties.QUOTE_AMOUNT_TYPE;
 import static org.mifos.connector.ams.camel.config.CamelProperties.TRANSACTION_ROLE;
 import static org.mifos.connector.ams.camel.config.CamelProperties.TRANSFER_ACTION;
 import static org.mifos.connector.ams.camel.config.CamelProperties.X_CALLBACKURL;
 import static org.mifos.connector.ams.camel.config.CamelProperties.ZEEBE_JOB_KEY;
+import static org.mifos.connector.ams.camel.config.CamelProperties.ZEEBE_JOB_TYPE;
+import static org.mifos.connector.ams.logging.HotPathLogging.JOB_DETAILS;
+import static org.mifos.connector.ams.logging.HotPathLogging.MDC_TENANT;
+import static org.mifos.connector.ams.logging.HotPathLogging.MDC_TRANSACTION_ID;
+import static org.mifos.connector.ams.logging.HotPathLogging.PAYLOADS;
+import static org.mifos.connector.ams.zeebe.ZeebeClientConfiguration.EXECUTION_MODE_PLATFORM;
+import static org.mifos.connector.ams.zeebe.ZeebeClientConfiguration.EXECUTION_MODE_VIRTUAL;
 import static org.mifos.connector.ams.zeebe.ZeebeUtil.zeebeVariable;
 import static org.mifos.connector.ams.zeebe.ZeebeUtil.zeebeVariablesToCamelProperties;
 import static org.mifos.connector.ams.zeebe.ZeebeVariables.ACCOUNT;
@@ -26,6 +35,8 @@ import static org.mifos.connector.ams.zeebe.ZeebeVariables.PARTY_ID_TYPE;
 import static org.mifos.connector.ams.zeebe.ZeebeVariables.PAYEE_PARTY_RESPONSE;
 import static org.mifos.connector.ams.zeebe.ZeebeVariables.QUOTE_FAILED;
 import static org.mifos.connector.ams.zeebe.ZeebeVariables.QUOTE_SWITCH_REQUEST;
+import static org.mifos.connector.ams.zeebe.ZeebeVariables.REQUESTED_DATE;
+import static org.mifos.connector.ams.zeebe.ZeebeVariables.ROUTE_VARIABLES;
 import static org.mifos.connector.ams.zeebe.ZeebeVariables.TENANT_ID;
 import static org.mifos.connector.ams.zeebe.ZeebeVariables.TRANSACTION_ID;
 import static org.mifos.connector.ams.zeebe.ZeebeVariables.TRANSFER_CODE;
@@ -38,16 +49,34 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import io.camunda.zeebe.client.ZeebeClient;
 import io.camunda.zeebe.client.api.response.ActivatedJob;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import javax.annotation.PostConstruct;
 import org.apache.camel.CamelContext;
 import org.apache.camel.Exchange;
+import org.apache.camel.ExtendedExchange;
 import org.apache.camel.ProducerTemplate;
+import org.apache.camel.spi.Synchronization;
 import org.apache.camel.support.DefaultExchange;
-import org.json.JSONObject;
+import org.apache.camel.support.SynchronizationAdapter;
+import org.mifos.connector.ams.interop.AsyncAmsService;
+import org.mifos.connector.ams.interop.ClientCache;
+import org.mifos.connector.ams.interop.ClientResponseProcessor;
+import org.mifos.connector.ams.logging.HotPathLogging;
 import org.mifos.connector.ams.properties.TenantProperties;
+import org.mifos.connector.ams.tenant.BulkheadFullException;
+import org.mifos.connector.ams.tenant.TenantBulkheads;
 import org.mifos.connector.common.ams.dto.QuoteFspResponseDTO;
 import org.mifos.connector.common.channel.dto.TransactionChannelRequestDTO;
 import org.mifos.connector.common.gsma.dto.GsmaTransfer;
@@ -101,6 +130,39 @@ public class ZeebeeWorkers {
     @Autowired
     private TenantProperties tenantProperties;
 
+    @Autowired
+    private ZeebeCompletionService completionService;
+
+    @Autowired
+    private ChannelRequestCache channelRequestCache;
+
+    @Autowired
+    private ActivationController activationController;
+
+    @Autowired
+    private JobDispatcher jobDispatcher;
+
+    @Autowired
+    private HotPathLogging hotPathLogging;
+
+    @Autowired
+    private IdempotencyRegistry idempotencyRegistry;
+
+    @Autowired
+    private TenantBulkheads tenantBulkheads;
+
+    @Autowired
+    private JobMetrics jobMetrics;
+
+    @Autowired
+    private AsyncAmsService asyncAmsService;
+
+    @Autowired
+    private ClientResponseProcessor clientResponseProcessor;
+
+    @Autowired
+    private ClientCache clientCache;
+
     @Value("${ams.local.enabled:false}")
     private boolean isAmsLocalEnabled;
 
@@ -116,87 +178,126 @@ public class ZeebeeWorkers {
     @Value("${interop-party-registration.enabled}")
     private boolean interopPartyRegistrationEnabled;
 
+    @Value("${zeebe.client.async-handlers.enabled:false}")
+    private boolean asyncHandlersEnabled;
+
+    @Value("${zeebe.client.async-handlers.threads:16}")
+    private int asyncHandlerThreads;
+
+    @Value("${zeebe.client.execution-mode:" + EXECUTION_MODE_PLATFORM + "}")
+    private String executionMode;
+
+    @Value("${zeebe.client.fetch-variables.enabled:true}")
+    private boolean fetchVariablesEnabled;
+
+    @Value("${zeebe.client.idempotency.enabled:true}")
+    private boolean idempotencyEnabled;
+
+    @Value("${ams.local.async-api.enabled:false}")
+    private boolean asyncApiEnabled;
+
+    @Value("${ams.local.bulkhead.job-retry-backoff-ms:1000}")
+    private long bulkheadRetryBackoffMs;
+
+    private final Map<String, Set<String>> declaredVariables = new ConcurrentHashMap<>();
+    private ProducerTemplate asyncProducerTemplate;
+
     @PostConstruct
     public void setupWorkers() {
         if (isZeebeEnabled) {
-            zeebeClient.newWorker().jobType("block-funds").handler((client, job) -> {
+            if (asyncHandlersEnabled) {
+                logger.info("Zeebe job handlers dispatch to camel asynchronously, execution mode: {}", executionMode);
+                ExecutorService asyncHandlerExecutor = EXECUTION_MODE_VIRTUAL.equals(executionMode)
+                        ? Executors.newVirtualThreadPerTaskExecutor()
+                        : camelContext.getExecutorServiceManager().newFixedThreadPool(this, "zeebe-async-handler", asyncHandlerThreads);
+                asyncProducerTemplate = camelContext.createProducerTemplate();
+                asyncProducerTemplate.setExecutorService(asyncHandlerExecutor);
+            }
+
+            jobDispatcher.register("block-funds", fetchVariables("block-funds", "direct:send-transfers", TRANSACTION_ID, CHANNEL_REQUEST,
+                    EXTERNAL_ACCOUNT_ID, TENANT_ID, PROCESS_TYPE, "payeeTenantId"), (client, job) -> {
                 logWorkerDetails(job);
                 if (isAmsLocalEnabled) {
                     Exchange ex = new DefaultExchange(camelContext);
-                    zeebeVariablesToCamelProperties(job.getVariablesAsMap(), ex, TRANSACTION_ID, CHANNEL_REQUEST, EXTERNAL_ACCOUNT_ID,
-                            TENANT_ID, LOCAL_QUOTE_RESPONSE, PROCESS_TYPE);
-                    TransactionChannelRequestDTO channelRequest = objectMapper.readValue(ex.getProperty(CHANNEL_REQUEST, String.class),
-                            TransactionChannelRequestDTO.class);
+                    JobVariables variables = variables(job);
+                    zeebeVariablesToCamelProperties(variables, ex, TRANSACTION_ID, CHANNEL_REQUEST, EXTERNAL_ACCOUNT_ID,
+                            TENANT_ID, PROCESS_TYPE);
+                    TransactionChannelRequestDTO channelRequest = channelRequestCache.get(ex.getProperty(TRANSACTION_ID, String.class),
+                            ex.getProperty(CHANNEL_REQUEST, String.class));
                     ex.setProperty(PARTY_ID_TYPE, channelRequest.getPayer().getPartyIdInfo().getPartyIdType().name());
                     ex.setProperty(PARTY_ID, channelRequest.getPayer().getPartyIdInfo().getPartyIdentifier());
                     ex.setProperty(TRANSFER_ACTION, PREPARE.name());
                     ex.setProperty(ZEEBE_JOB_KEY, job.getKey());
                     ex.setProperty(TRANSACTION_ROLE, TransactionRole.PAYER.name());
-                    ex.setProperty("payeeTenantId", job.getVariablesAsMap().get("payeeTenantId"));
-                    logger.debug("Payee Id before block funds {}", job.getVariablesAsMap().get("payeeTenantId"));
-                    producerTemplate.send("direct:send-transfers", ex);
-                    logger.info("Zeebe variable {}", job.getVariablesAsMap());
+                    ex.setProperty("payeeTenantId", variables.get("payeeTenantId"));
+                    logger.debug("Payee Id before block funds {}", ex.getProperty("payeeTenantId"));
+                    sendTransferOnce(ex, job);
                 } else {
                     Map<String, Object> variables = new HashMap<>();
                     variables.put(TRANSFER_PREPARE_FAILED, false);
-                    zeebeClient.newCompleteCommand(job.getKey()).variables(variables).send();
+                    completionService.complete(job, variables);
                 }
-            }).name("block-funds").maxJobsActive(workerMaxJobs).open();
+            });
 
-            zeebeClient.newWorker().jobType("book-funds").handler((client, job) -> {
+            jobDispatcher.register("book-funds", fetchVariables("book-funds", "direct:send-transfers", TRANSACTION_ID, CHANNEL_REQUEST,
+                    EXTERNAL_ACCOUNT_ID, TENANT_ID, TRANSFER_CODE, "payeeTenantId"), (client, job) -> {
                 logWorkerDetails(job);
                 if (isAmsLocalEnabled) {
                     Exchange ex = new DefaultExchange(camelContext);
-                    zeebeVariablesToCamelProperties(job.getVariablesAsMap(), ex, TRANSACTION_ID, CHANNEL_REQUEST, TENANT_ID,
-                            EXTERNAL_ACCOUNT_ID, LOCAL_QUOTE_RESPONSE, TRANSFER_CODE);
-                    TransactionChannelRequestDTO channelRequest = objectMapper.readValue(ex.getProperty(CHANNEL_REQUEST, String.class),
-                            TransactionChannelRequestDTO.class);
+                    JobVariables variables = variables(job);
+                    zeebeVariablesToCamelProperties(variables, ex, TRANSACTION_ID, CHANNEL_REQUEST, TENANT_ID,
+                            EXTERNAL_ACCOUNT_ID, TRANSFER_CODE);
+                    TransactionChannelRequestDTO channelRequest = channelRequestCache.get(ex.getProperty(TRANSACTION_ID, String.class),
+                            ex.getProperty(CHANNEL_REQUEST, String.class));
                     ex.setProperty(PARTY_ID_TYPE, channelRequest.getPayer().getPartyIdInfo().getPartyIdType().name());
                     ex.setProperty(PARTY_ID, channelRequest.getPayer().getPartyIdInfo().getPartyIdentifier());
                     ex.setProperty(TRANSFER_ACTION, CREATE.name());
                     ex.setProperty(ZEEBE_JOB_KEY, job.getKey());
                     ex.setProperty(TRANSACTION_ROLE, TransactionRole.PAYER.name());
-                    ex.setProperty("payeeTenantId", job.getVariablesAsMap().get("payeeTenantId"));
+                    ex.setProperty("payeeTenantId", variables.get("payeeTenantId"));
                     ex.setProperty("processType", "api");
-                    producerTemplate.send("direct:send-transfers", ex);
+                    sendTransferOnce(ex, job);
                 } else {
                     Map<String, Object> variables = new HashMap<>();
                     variables.put("transferCreateFailed", false);
-                    zeebeClient.newCompleteCommand(job.getKey()).variables(variables).send();
+                    completionService.complete(job, variables);
                 }
-            }).name("book-funds").maxJobsActive(workerMaxJobs).open();
+            });
 
-            zeebeClient.newWorker().jobType("release-block").handler((client, job) -> {
+            jobDispatcher.register("release-block", fetchVariables("release-block", "direct:send-transfers", TRANSACTION_ID,
+                    CHANNEL_REQUEST, EXTERNAL_ACCOUNT_ID, TENANT_ID, TRANSFER_CODE, "payeeTenantId"), (client, job) -> {
                 logWorkerDetails(job);
                 if (isAmsLocalEnabled) {
                     Exchange ex = new DefaultExchange(camelContext);
-                    zeebeVariablesToCamelProperties(job.getVariablesAsMap(), ex, TRANSACTION_ID, CHANNEL_REQUEST, TENANT_ID,
-                            EXTERNAL_ACCOUNT_ID, LOCAL_QUOTE_RESPONSE, TRANSFER_CODE);
-                    TransactionChannelRequestDTO channelRequest = objectMapper.readValue(ex.getProperty(CHANNEL_REQUEST, String.class),
-                            TransactionChannelRequestDTO.class);
+                    JobVariables variables = variables(job);
+                    zeebeVariablesToCamelProperties(variables, ex, TRANSACTION_ID, CHANNEL_REQUEST, TENANT_ID,
+                            EXTERNAL_ACCOUNT_ID, TRANSFER_CODE);
+                    TransactionChannelRequestDTO channelRequest = channelRequestCache.get(ex.getProperty(TRANSACTION_ID, String.class),
+                            ex.getProperty(CHANNEL_REQUEST, String.class));
                     ex.setProperty(PARTY_ID_TYPE, channelRequest.getPayer().getPartyIdInfo().getPartyIdType().name());
                     ex.setProperty(PARTY_ID, channelRequest.getPayer().getPartyIdInfo().getPartyIdentifier());
                     ex.setProperty(TRANSFER_ACTION, RELEASE.name());
                     ex.setProperty(ZEEBE_JOB_KEY, job.getKey());
                     ex.setProperty(TRANSACTION_ROLE, TransactionRole.PAYEE.name());
-                    ex.setProperty("payeeTenantId", job.getVariablesAsMap().get("payeeTenantId"));
-                    producerTemplate.send("direct:send-transfers", ex);
+                    ex.setProperty("payeeTenantId", variables.get("payeeTenantId"));
+                    sendTransferOnce(ex, job);
                 } else {
                     Map<String, Object> variables = new HashMap<>();
                     variables.put("transferReleaseFailed", false);
-                    zeebeClient.newCompleteCommand(job.getKey()).variables(variables).send();
+                    completionService.complete(job, variables);
                 }
-            }).name("release-block").maxJobsActive(workerMaxJobs).open();
+            });
 
             for (String dfspid : dfspids) {
                 logger.info("DFSPID {}", dfspid);
                 logger.info("## generating " + WORKER_PAYER_LOCAL_QUOTE + "{} worker", dfspid);
-                zeebeClient.newWorker().jobType(WORKER_PAYER_LOCAL_QUOTE + dfspid).handler((client, job) -> {
+                jobDispatcher.register(WORKER_PAYER_LOCAL_QUOTE + dfspid, fetchVariables(WORKER_PAYER_LOCAL_QUOTE + dfspid,
+                        "direct:send-local-quote", CHANNEL_REQUEST, TENANT_ID, TRANSACTION_ID), (client, job) -> {
                     logWorkerDetails(job);
                     if (isAmsLocalEnabled) {
-                        Map<String, Object> existingVariables = job.getVariablesAsMap();
-                        TransactionChannelRequestDTO channelRequest = objectMapper
-                                .readValue((String) existingVariables.get(CHANNEL_REQUEST), TransactionChannelRequestDTO.class);
+                        Map<String, Object> existingVariables = variables(job);
+                        TransactionChannelRequestDTO channelRequest = channelRequestCache
+                                .get((String) existingVariables.get(TRANSACTION_ID), (String) existingVariables.get(CHANNEL_REQUEST));
 
                         Exchange ex = new DefaultExchange(camelContext);
                         zeebeVariablesToCamelProperties(existingVariables, ex, CHANNEL_REQUEST, TENANT_ID, TRANSACTION_ID);
@@ -206,18 +307,19 @@ public class ZeebeeWorkers {
                         ex.setProperty(ZEEBE_JOB_KEY, job.getKey());
                         ex.setProperty(TRANSACTION_ROLE, TransactionRole.PAYER);
                         ex.setProperty(QUOTE_AMOUNT_TYPE, AmountType.SEND.name());
-                        producerTemplate.send("direct:send-local-quote", ex);
+                        sendToRoute("direct:send-local-quote", ex, job);
                     } else {
                         Map<String, Object> variables = new HashMap<>();
                         variables.put(LOCAL_QUOTE_FAILED, false);
-                        zeebeClient.newCompleteCommand(job.getKey()).variables(variables).send();
+                        completionService.complete(job, variables);
                     }
-                }).name(WORKER_PAYER_LOCAL_QUOTE + dfspid).maxJobsActive(workerMaxJobs).open();
+                });
 
                 logger.info("## generating " + WORKER_PAYEE_QUOTE + "{} worker", dfspid);
-                zeebeClient.newWorker().jobType(WORKER_PAYEE_QUOTE + dfspid).handler((client, job) -> {
+                jobDispatcher.register(WORKER_PAYEE_QUOTE + dfspid, fetchVariables(WORKER_PAYEE_QUOTE + dfspid, "direct:send-local-quote",
+                        QUOTE_SWITCH_REQUEST, TRANSACTION_ID, TENANT_ID), (client, job) -> {
                     logWorkerDetails(job);
-                    Map<String, Object> existingVariables = job.getVariablesAsMap();
+                    Map<String, Object> existingVariables = variables(job);
                     QuoteSwitchRequestDTO quoteRequest = objectMapper.readValue((String) existingVariables.get(QUOTE_SWITCH_REQUEST),
                             QuoteSwitchRequestDTO.class);
 
@@ -241,22 +343,24 @@ public class ZeebeeWorkers {
                         ex.setProperty(CHANNEL_REQUEST, objectMapper.writeValueAsString(channelRequest));
                         ex.setProperty(ZEEBE_JOB_KEY, job.getKey());
                         ex.setProperty(QUOTE_AMOUNT_TYPE, quoteRequest.getAmountType().name());
-                        producerTemplate.send("direct:send-local-quote", ex);
+                        sendToRoute("direct:send-local-quote", ex, job);
                     } else {
                         Map<String, Object> variables = createFreeQuote(quoteRequest.getAmount().getCurrency());
                         variables.put(QUOTE_FAILED, false);
-                        zeebeClient.newCompleteCommand(job.getKey()).variables(variables).send();
+                        completionService.complete(job, variables);
                     }
-                }).name(WORKER_PAYEE_QUOTE + dfspid).maxJobsActive(workerMaxJobs).open();
+                });
 
                 logger.info("## generating " + WORKER_PAYEE_COMMIT_TRANSFER + "{} worker", dfspid);
-                zeebeClient.newWorker().jobType(WORKER_PAYEE_COMMIT_TRANSFER + dfspid).handler((client, job) -> {
+                jobDispatcher.register(WORKER_PAYEE_COMMIT_TRANSFER + dfspid, fetchVariables(WORKER_PAYEE_COMMIT_TRANSFER + dfspid,
+                        "direct:send-transfers", BOOK_TRANSACTION_ID, TRANSACTION_ID, TENANT_ID, EXTERNAL_ACCOUNT_ID, QUOTE_SWITCH_REQUEST,
+                        "amount"), (client, job) -> {
                     logWorkerDetails(job);
                     if (isAmsLocalEnabled) {
                         Exchange exchange = new DefaultExchange(camelContext);
-                        Map<String, Object> variables = job.getVariablesAsMap();
+                        Map<String, Object> variables = variables(job);
                         zeebeVariablesToCamelProperties(variables, exchange, BOOK_TRANSACTION_ID, TRANSACTION_ID, TENANT_ID,
-                                EXTERNAL_ACCOUNT_ID, LOCAL_QUOTE_RESPONSE);
+                                EXTERNAL_ACCOUNT_ID);
                         exchange.setProperty(TRANSFER_ACTION, CREATE.name());
                         exchange.setProperty(ZEEBE_JOB_KEY, job.getKey());
 
@@ -276,22 +380,26 @@ public class ZeebeeWorkers {
                         transactionType.setScenario(Scenario.DEPOSIT);
                         transactionRequest.setTransactionType(transactionType);
                         transactionRequest.setAmount(amount);
-                        exchange.setProperty(CHANNEL_REQUEST, objectMapper.writeValueAsString(transactionRequest));
+                        String channelRequest = objectMapper.writeValueAsString(transactionRequest);
+                        exchange.setProperty(CHANNEL_REQUEST, channelRequest);
                         exchange.setProperty(TRANSACTION_ROLE, TransactionRole.PAYEE.name());
 
-                        logger.info("####### transaction request {}", objectMapper.writeValueAsString(transactionRequest));
-                        producerTemplate.send("direct:send-transfers", exchange);
+                        if (logger.isDebugEnabled() && hotPathLogging.sample(PAYLOADS)) {
+                            logger.debug("Transaction request {}", hotPathLogging.truncate(channelRequest));
+                        }
+                        sendTransferOnce(exchange, job);
                     } else {
                         Map<String, Object> variables = new HashMap<>();
                         variables.put("transferCreateFailed", false);
-                        zeebeClient.newCompleteCommand(job.getKey()).variables(variables).send();
+                        completionService.complete(job, variables);
                     }
-                }).name(WORKER_PAYEE_COMMIT_TRANSFER + dfspid).maxJobsActive(workerMaxJobs).open();
+                });
 
                 logger.info("## generating " + WORKER_PARTY_LOOKUP_LOCAL + "{} worker", dfspid);
-                zeebeClient.newWorker().jobType(WORKER_PARTY_LOOKUP_LOCAL + dfspid).handler((client, job) -> {
+                jobDispatcher.register(WORKER_PARTY_LOOKUP_LOCAL + dfspid, fetchVariables(WORKER_PARTY_LOOKUP_LOCAL + dfspid,
+                        "direct:get-party", PARTY_ID_TYPE, PARTY_ID, TENANT_ID, "payeeTenantId"), (client, job) -> {
                     logWorkerDetails(job);
-                    Map<String, Object> existingVariables = job.getVariablesAsMap();
+                    Map<String, Object> existingVariables = variables(job);
                     String partyIdType = (String) existingVariables.get(PARTY_ID_TYPE);
                     String partyId = (String) existingVariables.get(PARTY_ID);
                     String tenantId = (String) existingVariables.get(TENANT_ID); // payer
@@ -307,7 +415,16 @@ public class ZeebeeWorkers {
                         }
                         ex.setProperty("payeeTenantId", existingVariables.get("payeeTenantId"));
 
-                        producerTemplate.send("direct:get-party", ex);
+                        String partyResponse = clientCache.getPartyResponse(ex.getProperty(TENANT_ID, String.class), partyIdType, partyId);
+                        if (partyResponse != null) {
+                            Map<String, Object> variables = new HashMap<>();
+                            variables.put(PAYEE_PARTY_RESPONSE, partyResponse);
+                            completionService.complete(job, variables);
+                        } else if (asyncApiEnabled) {
+                            getPartyAsync(ex, job);
+                        } else {
+                            sendToRoute("direct:get-party", ex, job);
+                        }
 
                         /*
                          * payeeTenantId == dfspid => payee else payer
@@ -327,20 +444,22 @@ public class ZeebeeWorkers {
 
                         variables.put(PAYEE_PARTY_RESPONSE, objectMapper.writeValueAsString(party));
                         variables.put("payeeTenantId", existingVariables.get("payeeTenantId"));
-                        client.newCompleteCommand(job.getKey()).variables(variables).send();
+                        completionService.complete(job, variables);
                     }
-                }).name(WORKER_PARTY_LOOKUP_LOCAL + dfspid).maxJobsActive(workerMaxJobs).open();
+                });
 
                 logger.info("## generating " + WORKER_INTEROP_PARTY_REGISTRATION + "{} worker", dfspid);
-                zeebeClient.newWorker().jobType(WORKER_INTEROP_PARTY_REGISTRATION + dfspid).handler((client, job) -> {
+                jobDispatcher.register(WORKER_INTEROP_PARTY_REGISTRATION + dfspid, fetchVariables(
+                        WORKER_INTEROP_PARTY_REGISTRATION + dfspid, "direct:register-party", PARTY_ID_TYPE, PARTY_ID, ACCOUNT,
+                        TENANT_ID), (client, job) -> {
                     logWorkerDetails(job);
-                    Map<String, Object> existingVariables = job.getVariablesAsMap();
+                    Map<String, Object> existingVariables = variables(job);
 
                     if (!interopPartyRegistrationEnabled) {
                         Map<String, Object> variables = new HashMap<>();
                         variables.put(ACCOUNT_CURRENCY, "USD");
                         variables.put(INTEROP_REGISTRATION_FAILED, false);
-                        client.newCompleteCommand(job.getKey()).variables(variables).send();
+                        completionService.complete(job, variables);
                         logger.info("Interop disabled with variables {}", variables);
                         return;
                     }
@@ -352,27 +471,28 @@ public class ZeebeeWorkers {
                         ex.setProperty(ACCOUNT, existingVariables.get(ACCOUNT));
                         ex.setProperty(TENANT_ID, existingVariables.get(TENANT_ID));
                         ex.setProperty(ZEEBE_JOB_KEY, job.getKey());
-                        producerTemplate.send("direct:register-party", ex);
+                        sendToRoute("direct:register-party", ex, job);
                     } else {
                         Map<String, Object> variables = new HashMap<>();
                         variables.put(ACCOUNT_CURRENCY, "TZS");
-                        client.newCompleteCommand(job.getKey()).variables(variables).send();
+                        completionService.complete(job, variables);
                     }
-                }).name(WORKER_INTEROP_PARTY_REGISTRATION + dfspid).maxJobsActive(workerMaxJobs).open();
+                });
 
                 logger.info("## generating " + WORKER_PAYEE_DEPOSIT_TRANSFER + "{} worker", dfspid);
-                zeebeClient.newWorker().jobType(WORKER_PAYEE_DEPOSIT_TRANSFER + dfspid).handler((client, job) -> {
+                jobDispatcher.register(WORKER_PAYEE_DEPOSIT_TRANSFER + dfspid, fetchVariables(WORKER_PAYEE_DEPOSIT_TRANSFER + dfspid,
+                        "direct:send-transfers", TRANSACTION_ID, TENANT_ID, EXTERNAL_ACCOUNT_ID, CHANNEL_REQUEST, "payeeTenantId", NOTE),
+                        (client, job) -> {
                     logWorkerDetails(job);
-                    Map<String, Object> existingVariables = job.getVariablesAsMap();
-                    logger.info("Exisiting variables {}", existingVariables);
+                    JobVariables variables = variables(job);
+                    logger.debug("Exisiting variables {}", variables);
 
-                    String tenantId = (String) existingVariables.get(TENANT_ID);
+                    String tenantId = (String) variables.get(TENANT_ID);
 
                     Exchange ex = new DefaultExchange(camelContext);
-                    Map<String, Object> variables = job.getVariablesAsMap();
                     zeebeVariablesToCamelProperties(variables, ex, TRANSACTION_ID, TENANT_ID, EXTERNAL_ACCOUNT_ID, CHANNEL_REQUEST);
                     ex.setProperty(TRANSFER_ACTION, CREATE.name());
-                    ex.setProperty("payeeTenantId", existingVariables.get("payeeTenantId"));
+                    ex.setProperty("payeeTenantId", variables.get("payeeTenantId"));
                     ex.setProperty(ZEEBE_JOB_KEY, job.getKey());
 
                     TransactionChannelRequestDTO transactionRequest = objectMapper.readValue((String) variables.get(CHANNEL_REQUEST),
@@ -398,25 +518,26 @@ public class ZeebeeWorkers {
 
                     ex.setProperty(CHANNEL_REQUEST, objectMapper.writeValueAsString(transactionRequest));
                     ex.setProperty(TRANSACTION_ROLE, TransactionRole.PAYEE.name());
-                    producerTemplate.send("direct:send-transfers", ex);
-                    variables.put("transferCreateFailed", false);
-                    variables.put("payeeTenantId", existingVariables.get("payeeTenantId"));
-                    zeebeClient.newCompleteCommand(job.getKey()).variables(variables).send();
-                }).name(WORKER_PAYEE_DEPOSIT_TRANSFER + dfspid).maxJobsActive(workerMaxJobs).open();
+                    sendTransferOnce("direct:send-transfers", ex, job, routed -> {
+                        variables.put("transferCreateFailed", false);
+                        completionService.complete(job, variables);
+                    });
+                });
 
                 logger.info("## generating {}" + "{} worker", WORKER_PAYEE_LOAN_TRANSFER, dfspid);
-                zeebeClient.newWorker().jobType(WORKER_PAYEE_LOAN_TRANSFER + dfspid).handler((client, job) -> {
+                jobDispatcher.register(WORKER_PAYEE_LOAN_TRANSFER + dfspid, fetchVariables(WORKER_PAYEE_LOAN_TRANSFER + dfspid,
+                        "direct:send-transfers-loan", TRANSACTION_ID, TENANT_ID, CHANNEL_REQUEST, "payeeTenantId", ACCOUNT_NUMBER,
+                        REQUESTED_DATE), (client, job) -> {
                     logWorkerDetails(job);
-                    Map<String, Object> existingVariables = job.getVariablesAsMap();
-                    logger.debug("Exisiting variables {}", existingVariables);
+                    JobVariables variables = variables(job);
+                    logger.debug("Exisiting variables {}", variables);
 
-                    String tenantId = (String) existingVariables.get(TENANT_ID);
+                    String tenantId = (String) variables.get(TENANT_ID);
 
                     Exchange ex = new DefaultExchange(camelContext);
-                    Map<String, Object> variables = job.getVariablesAsMap();
                     zeebeVariablesToCamelProperties(variables, ex, TRANSACTION_ID, TENANT_ID, CHANNEL_REQUEST);
                     ex.setProperty(TRANSFER_ACTION, CREATE.name());
-                    ex.setProperty("payeeTenantId", existingVariables.get("payeeTenantId"));
+                    ex.setProperty("payeeTenantId", variables.get("payeeTenantId"));
                     ex.setProperty(ZEEBE_JOB_KEY, job.getKey());
 
                     TransactionChannelRequestDTO transactionRequest = objectMapper.readValue((String) variables.get(CHANNEL_REQUEST),
@@ -427,22 +548,22 @@ public class ZeebeeWorkers {
                     String partyIdType = transactionRequest.getPayee().getPartyIdInfo().getPartyIdType().name();
                     String partyId = transactionRequest.getPayee().getPartyIdInfo().getPartyIdentifier();
 
-                    ZeebeUtil.setExchangePropertyLoan(ex, partyId, partyIdType, transactionRequest, existingVariables);
+                    ZeebeUtil.setExchangePropertyLoan(ex, partyId, partyIdType, transactionRequest, variables);
 
-                    producerTemplate.send("direct:send-transfers-loan", ex);
-                    variables.put("transferCreateFailed", false);
-                    variables.put("payeeTenantId", existingVariables.get("payeeTenantId"));
-                    zeebeClient.newCompleteCommand(job.getKey()).variables(variables).send();
-                }).name(WORKER_PAYEE_LOAN_TRANSFER + dfspid).maxJobsActive(workerMaxJobs).open();
+                    sendTransferOnce("direct:send-transfers-loan", ex, job, routed -> {
+                        variables.put("transferCreateFailed", false);
+                        completionService.complete(job, variables);
+                    });
+                });
 
                 logger.info("## generating " + WORKER_ACCOUNT_IDENTIFIER + "{} worker", dfspid);
-                zeebeClient.newWorker().jobType(WORKER_ACCOUNT_IDENTIFIER + dfspid).handler((client, job) -> {
+                jobDispatcher.register(WORKER_ACCOUNT_IDENTIFIER + dfspid, fetchVariables(WORKER_ACCOUNT_IDENTIFIER + dfspid, null,
+                        TENANT_ID, CHANNEL_REQUEST), (client, job) -> {
                     logWorkerDetails(job);
-                    Map<String, Object> existingVariables = job.getVariablesAsMap();
-                    logger.debug("Exisiting variables {}", existingVariables);
-                    String accountHoldingInstitutionId = (String) existingVariables.get(TENANT_ID);
+                    JobVariables variables = variables(job);
+                    logger.debug("Exisiting variables {}", variables);
+                    String accountHoldingInstitutionId = (String) variables.get(TENANT_ID);
                     Exchange ex = new DefaultExchange(camelContext);
-                    Map<String, Object> variables = job.getVariablesAsMap();
                     GsmaTransfer gsmaTransfer = objectMapper.readValue((String) variables.get(CHANNEL_REQUEST), GsmaTransfer.class);
                     logger.debug("GSMA Transfer Body:{}", gsmaTransfer);
                     String accountNo = gsmaTransfer.getPayee().get(0).getPartyIdIdentifier();
@@ -455,39 +576,238 @@ public class ZeebeeWorkers {
                     ZeebeUtil.setZeebeVariables(e, variables, gsmaTransfer.getRequestDate(), accountHoldingInstitutionId,
                             transactionChannelRequestDTO);
 
-                    zeebeClient.newCompleteCommand(job.getKey()).variables(variables).send();
-                }).name(WORKER_ACCOUNT_IDENTIFIER + dfspid).maxJobsActive(workerMaxJobs).open();
+                    completionService.complete(job, variables);
+                });
+            }
 
-                logger.info("## generating {} worker", WORKER_SEND_CALLBACK);
-                zeebeClient.newWorker().jobType(WORKER_SEND_CALLBACK).handler((client, job) -> {
-                    logWorkerDetails(job);
-                    Map<String, Object> existingVariables = job.getVariablesAsMap();
-                    logger.debug("Exisiting variables {}", existingVariables);
-                    Exchange ex = new DefaultExchange(camelContext);
-                    Map<String, Object> variables = job.getVariablesAsMap();
+            logger.info("## generating {} worker", WORKER_SEND_CALLBACK);
+            jobDispatcher.register(WORKER_SEND_CALLBACK, fetchVariables(WORKER_SEND_CALLBACK, "direct:send-callback", X_CALLBACKURL,
+                    FINERACT_RESPONSE_BODY), (client, job) -> {
+                logWorkerDetails(job);
+                JobVariables variables = variables(job);
+                logger.debug("Exisiting variables {}", variables);
+                Exchange ex = new DefaultExchange(camelContext);
 
-                    ex.setProperty(X_CALLBACKURL, existingVariables.get(X_CALLBACKURL));
-                    ex.setProperty(FINERACT_RESPONSE_BODY, existingVariables.get(FINERACT_RESPONSE_BODY));
-                    producerTemplate.send("direct:send-callback", ex);
-                    variables.put(CALLBACK_SUCCESS, ex.getProperty("callbackSent").toString());
-                    zeebeClient.newCompleteCommand(job.getKey()).variables(variables).send();
+                ex.setProperty(X_CALLBACKURL, variables.get(X_CALLBACKURL));
+                ex.setProperty(FINERACT_RESPONSE_BODY, variables.get(FINERACT_RESPONSE_BODY));
+                sendToRoute("direct:send-callback", ex, job, routed -> {
+                    variables.put(CALLBACK_SUCCESS, routed.getProperty("callbackSent").toString());
+                    completionService.complete(job, variables);
+                });
 
-                }).name(WORKER_SEND_CALLBACK).maxJobsActive(workerMaxJobs).open();
+            });
+
+            jobDispatcher.start();
+        }
+    }
+
+    /**
+     * Declares the variables a job type is activated with: the variables its handler reads plus those the camel route fed
+     * by the handler reads, see {@link ZeebeVariables#ROUTE_VARIABLES}. Startup fails if the route has no entry there.
+     * Handlers read the variables through {@link #variables(ActivatedJob)}, which fails the job on an undeclared read. With
+     * zeebe.client.fetch-variables.enabled=false every variable is fetched again.
+     */
+    private List<String> fetchVariables(String jobType, String route, String... names) {
+        Set<String> declared = new LinkedHashSet<>(List.of(names));
+        if (route != null) {
+            List<String> routeVariables = ROUTE_VARIABLES.get(route);
+            if (routeVariables == null) {
+                throw new IllegalStateException(
+                        "Route " + route + " of worker " + jobType + " does not declare the zeebe variables it reads");
+            }
+            declared.addAll(routeVariables);
+        }
+        declaredVariables.put(jobType, declared);
+        logger.debug("Worker {} fetches variables {}", jobType, declared);
+        return fetchVariablesEnabled ? List.copyOf(declared) : List.of();
+    }
+
+    private JobVariables variables(ActivatedJob job) {
+        return new JobVariables(job.getVariablesAsMap(), declaredVariables.get(job.getType()));
+    }
+
+    private void sendToRoute(String endpoint, Exchange ex, ActivatedJob job) {
+        sendToRoute(endpoint, ex, job, routed -> {});
+    }
+
+    /**
+     * Hands the exchange to a camel route. In blocking mode the zeebe execution thread waits for the route, with
+     * zeebe.client.async-handlers.enabled the route runs on the async handler pool and afterRoute is called from the
+     * completion callback, so the handler returns right away. A failed async exchange fails the job with one retry less.
+     * Jobs of a tenant whose bulkhead is full are deferred, see {@link #deferJob(ActivatedJob, String)}.
+     */
+    private void sendToRoute(String endpoint, Exchange ex, ActivatedJob job, Consumer<Exchange> afterRoute) {
+        String tenant = ex.getProperty(TENANT_ID, String.class);
+        ex.setProperty(ZEEBE_JOB_TYPE, job.getType());
+        HotPathLogging.correlate(MDC_TRANSACTION_ID, ex.getProperty(TRANSACTION_ID));
+        HotPathLogging.correlate(MDC_TENANT, tenant);
+        if (!tenantBulkheads.hasCapacity(tenant)) {
+            // the exchange is not routed, its completions, like the release of an idempotency key, run here
+            List<Synchronization> completions = ex.adapt(ExtendedExchange.class).handoverCompletions();
+            if (completions != null) {
+                completions.forEach(completion -> completion.onFailure(ex));
             }
+            deferJob(job, tenant);
+            return;
+        }
+        if (!asyncHandlersEnabled) {
+            producerTemplate.send(endpoint, ex);
+            activationController.routeFinished(job.getType(), isAmsFailed(ex));
+            if (ex.getException(BulkheadFullException.class) != null) {
+                deferJob(job, tenant);
+                return;
+            }
+            afterRoute.accept(ex);
+            return;
+        }
+        asyncProducerTemplate.asyncCallback(endpoint, ex, new SynchronizationAdapter() {
+
+            @Override
+            public void onComplete(Exchange exchange) {
+                activationController.routeFinished(job.getType(), isAmsFailed(exchange));
+                try {
+                    afterRoute.accept(exchange);
+                } catch (RuntimeException e) {
+                    failJob(job, e);
+                }
+            }
+
+            @Override
+            public void onFailure(Exchange exchange) {
+                activationController.routeFinished(job.getType(), true);
+                if (exchange.getException(BulkheadFullException.class) != null) {
+                    deferJob(job, tenant);
+                } else {
+                    failJob(job, exchange.getException());
+                }
+            }
+        });
+    }
+
+    private void sendTransferOnce(Exchange ex, ActivatedJob job) {
+        sendTransferOnce("direct:send-transfers", ex, job, routed -> {});
+    }
+
+    /**
+     * Sends the transfer to Fineract once per transaction, transfer action and role. A redelivered job completes with the
+     * variables of the first execution, waiting for it while it still runs, see {@link IdempotencyRegistry}.
+     */
+    private void sendTransferOnce(String endpoint, Exchange ex, ActivatedJob job, Consumer<Exchange> afterRoute) {
+        if (!idempotencyEnabled) {
+            sendToRoute(endpoint, ex, job, afterRoute);
+            return;
+        }
+        String key = IdempotencyRegistry.key(ex.getProperty(TRANSACTION_ID), ex.getProperty(TRANSFER_ACTION),
+                ex.getProperty(TRANSACTION_ROLE));
+        CompletableFuture<Map<String, Object>> execution = new CompletableFuture<>();
+        CompletableFuture<Map<String, Object>> first = idempotencyRegistry.begin(key, execution);
+        if (first == null) {
+            ex.setProperty(IDEMPOTENCY_KEY, key);
+            ex.setProperty(IDEMPOTENCY_EXECUTION, execution);
+            ex.adapt(ExtendedExchange.class).addOnCompletion(new SynchronizationAdapter() {
+
+                @Override
+                public void onDone(Exchange exchange) {
+                    // no-op once the route completed the job
+                    idempotencyRegistry.release(key, execution);
+                }
+            });
+            sendToRoute(endpoint, ex, job, afterRoute);
+            return;
         }
+        logger.info("Job {} repeats transfer {}, completing it with the variables of the first execution", job.getKey(), key);
+        // a copy, the timeout must not fail the first execution for the other duplicates
+        first.copy().orTimeout(zeebeClient.getConfiguration().getDefaultJobTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((variables, error) -> {
+                    if (error == null) {
+                        completionService.complete(job, variables);
+                        return;
+                    }
+                    // hand the job back without using up a retry, the next delivery executes the transfer itself
+                    activationController.jobFinished(job.getKey());
+                    zeebeClient.newFailCommand(job.getKey()).retries(job.getRetries())
+                            .errorMessage("First execution of " + key + " did not complete").send();
+                });
+    }
+
+    /**
+     * The get-party route on the {@link AsyncAmsService}: the handler returns right away, the Fineract calls chain on the
+     * threads of the http client and the {@link ClientResponseProcessor} completes the job with the last response.
+     */
+    private void getPartyAsync(Exchange ex, ActivatedJob job) {
+        String tenant = ex.getProperty(TENANT_ID, String.class);
+        ex.setProperty(ZEEBE_JOB_TYPE, job.getType());
+        HotPathLogging.correlate(MDC_TENANT, tenant);
+        asyncAmsService.getParty(tenant, ex.getProperty(PARTY_ID_TYPE, String.class), ex.getProperty(PARTY_ID, String.class))
+                .whenComplete((response, error) -> {
+                    activationController.routeFinished(job.getType(), error != null || response.getStatusCode() >= 500);
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                        if (cause instanceof BulkheadFullException) {
+                            deferJob(job, tenant);
+                        } else {
+                            failJob(job, cause);
+                        }
+                        return;
+                    }
+                    try {
+                        response.applyTo(ex);
+                        if (response.isSuccessful()) {
+                            ex.getIn().setBody(asyncAmsService.parseClient(response));
+                            clientResponseProcessor.process(ex);
+                            return;
+                        }
+                    } catch (Exception e) {
+                        failJob(job, e);
+                        return;
+                    }
+                    // the error route may block, it runs on the threads of the producer template, not of the http client
+                    producerTemplate.asyncCallback("direct:error-handler", ex, new SynchronizationAdapter() {
+
+                        @Override
+                        public void onDone(Exchange exchange) {
+                            try {
+                                clientResponseProcessor.process(exchange);
+                            } catch (Exception e) {
+                                failJob(job, e);
+                            }
+                        }
+                    });
+                });
+    }
+
+    private static boolean isAmsFailed(Exchange exchange) {
+        Integer responseCode = exchange.getIn().getHeader(Exchange.HTTP_RESPONSE_CODE, Integer.class);
+        return exchange.getException() != null || responseCode != null && responseCode >= 500;
+    }
+
+    private void failJob(ActivatedJob job, Throwable cause) {
+        logger.error("Async handler failed for job {} of type {}", job.getKey(), job.getType(), cause);
+        activationController.jobFinished(job.getKey());
+        zeebeClient.newFailCommand(job.getKey()).retries(Math.max(job.getRetries() - 1, 0))
+                .errorMessage(cause != null ? cause.getMessage() : "camel route failed").send();
+    }
+
+    /**
+     * Hands the job back to zeebe without using up a retry, it is activated again after the backoff instead of holding a
+     * shared thread while the tenant is saturated.
+     */
+    private void deferJob(ActivatedJob job, String tenant) {
+        logger.warn("Deferring job {} of type {}, tenant {} is saturated", job.getKey(), job.getType(), tenant);
+        jobMetrics.countDeferred(job.getType(), tenant);
+        activationController.jobFinished(job.getKey());
+        zeebeClient.newFailCommand(job.getKey()).retries(job.getRetries()).retryBackoff(Duration.ofMillis(bulkheadRetryBackoffMs))
+                .errorMessage("Tenant " + tenant + " is saturated").send();
     }
 
     private void logWorkerDetails(ActivatedJob job) {
-        JSONObject jsonJob = new JSONObject();
-        jsonJob.put("bpmnProcessId", job.getBpmnProcessId());
-        jsonJob.put("elementInstanceKey", job.getElementInstanceKey());
-        jsonJob.put("jobKey", job.getKey());
-        jsonJob.put("jobType", job.getType());
-        jsonJob.put("workflowElementId", job.getElementId());
-        jsonJob.put("workflowDefinitionVersion", job.getProcessDefinitionVersion());
-        jsonJob.put("workflowKey", job.getProcessDefinitionKey());
-        jsonJob.put("workflowInstanceKey", job.getProcessInstanceKey());
-        logger.info("Job started: {}", jsonJob.toString(4));
+        if (!logger.isInfoEnabled() || !hotPathLogging.sample(JOB_DETAILS)) {
+            return;
+        }
+        logger.info("Job started: jobType={} bpmnProcessId={} elementId={} elementInstanceKey={} processDefinitionKey={} "
+                + "processDefinitionVersion={} processInstanceKey={}", job.getType(), job.getBpmnProcessId(), job.getElementId(),
+                job.getElementInstanceKey(), job.getProcessDefinitionKey(), job.getProcessDefinitionVersion(),
+                job.getProcessInstanceKey());
     }
 
     private Map<String, Object> createFreeQuote(String currency) throws Exception {
@@ -0,0 +1,73 @@
+package org.mifos.connector.ams.interop;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class AccountNumberIndexTest {
+
+    @Test
+    public void getsAccountsAcrossResizes() {
+        AccountNumberIndex.Accounts accounts = new AccountNumberIndex.Accounts();
+        for (int i = 0; i < 5000; i++) {
+            accounts.put(new SavingsAccountSummary(accountNo(i), "ext-" + i, i % 2 == 0 ? "USD" : "KES", 300));
+        }
+
+        assertEquals(5000, accounts.size());
+        for (int i = 0; i < 5000; i++) {
+            SavingsAccountSummary account = accounts.get(accountNo(i));
+            assertEquals(accountNo(i), account.getAccountNo());
+            assertEquals("ext-" + i, account.getExternalId());
+            assertEquals(i % 2 == 0 ? "USD" : "KES", account.getCurrencyCode());
+            assertEquals(300, account.getStatusId());
+        }
+        assertNull(accounts.get(accountNo(5000)));
+    }
+
+    @Test
+    public void probesPastCollidingAccountNumbers() {
+        AccountNumberIndex.Accounts accounts = new AccountNumberIndex.Accounts();
+        // equal hash codes
+        accounts.put(new SavingsAccountSummary("Aa", "ext-1", "USD", 300));
+        accounts.put(new SavingsAccountSummary("BB", "ext-2", "USD", 300));
+
+        assertEquals("ext-1", accounts.get("Aa").getExternalId());
+        assertEquals("ext-2", accounts.get("BB").getExternalId());
+        assertNull(accounts.get("C#"));
+    }
+
+    @Test
+    public void overwritesAnAccountInPlace() {
+        AccountNumberIndex.Accounts accounts = new AccountNumberIndex.Accounts();
+        accounts.put(new SavingsAccountSummary("000000001", "ext-1", "USD", 300));
+        accounts.put(new SavingsAccountSummary("000000001", "ext-2", null, 600));
+
+        SavingsAccountSummary account = accounts.get("000000001");
+        assertEquals(1, accounts.size());
+        assertEquals("ext-2", account.getExternalId());
+        assertNull(account.getCurrencyCode());
+        assertEquals(600, account.getStatusId());
+    }
+
+    @Test
+    public void looksUpNoAccountWithoutNumber() {
+        AccountNumberIndex index = new AccountNumberIndex();
+        ReflectionTestUtils.setField(index, "enabled", true);
+
+        assertNull(index.get("tenant", null));
+    }
+
+    @Test
+    public void ignoresAccountsWithoutNumber() {
+        AccountNumberIndex.Accounts accounts = new AccountNumberIndex.Accounts();
+        accounts.put(new SavingsAccountSummary(null, "ext-1", "USD", 300));
+
+        assertEquals(0, accounts.size());
+    }
+
+    private static String accountNo(int i) {
+        return String.format("%09d", i);
+    }
+}
@@ -0,0 +1,79 @@
+package org.mifos.connector.ams.interop;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class SavingsAccountSummaryTest {
+
+    private static final String PAGE = "{\"totalFilteredRecords\": 3, \"pageItems\": ["
+            + "{\"id\": 1, \"accountNo\": \"000000001\", \"externalId\": \"ext-1\", \"clientName\": \"A\","
+            + " \"currency\": {\"code\": \"USD\", \"decimalPlaces\": 2}, \"status\": {\"id\": 300, \"code\": \"active\"},"
+            + " \"summary\": {\"accountBalance\": 10.5, \"currency\": {\"code\": \"EUR\"}}},"
+            + "{\"id\": 2, \"accountNo\": \"000000002\", \"externalId\": null, \"currency\": {\"code\": \"KES\"},"
+            + " \"status\": {\"id\": 600}, \"charges\": [{\"id\": 1}]},"
+            + "{\"id\": 3, \"accountNo\": \"000000003\"}]}";
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    @Test
+    public void findsTheAccountOnThePage() throws IOException {
+        int[] page = {0, Integer.MAX_VALUE};
+        SavingsAccountSummary account = SavingsAccountSummary.find(parser(PAGE), "000000002", page);
+
+        assertEquals("000000002", account.getAccountNo());
+        assertNull(account.getExternalId());
+        assertEquals("KES", account.getCurrencyCode());
+        assertEquals(600, account.getStatusId());
+        // stops at the account
+        assertArrayEquals(new int[] {2, 3}, page);
+    }
+
+    @Test
+    public void readsNestedObjectsOfTheAccountOnly() throws IOException {
+        SavingsAccountSummary account = SavingsAccountSummary.find(parser(PAGE), "000000001", new int[] {0, Integer.MAX_VALUE});
+
+        assertEquals("ext-1", account.getExternalId());
+        assertEquals("USD", account.getCurrencyCode());
+        assertEquals(300, account.getStatusId());
+    }
+
+    @Test
+    public void readsTheWholePageWhenTheAccountIsMissing() throws IOException {
+        int[] page = {0, Integer.MAX_VALUE};
+
+        assertNull(SavingsAccountSummary.find(parser(PAGE), "000000004", page));
+        assertArrayEquals(new int[] {3, 3}, page);
+    }
+
+    @Test
+    public void scansEveryAccount() throws IOException {
+        List<SavingsAccountSummary> accounts = new ArrayList<>();
+        SavingsAccountSummary stoppedAt = SavingsAccountSummary.scan(parser(PAGE), account -> {
+            accounts.add(account);
+            return false;
+        }, new int[] {0, Integer.MAX_VALUE});
+
+        assertNull(stoppedAt);
+        assertEquals(3, accounts.size());
+        assertNull(accounts.get(2).getCurrencyCode());
+        assertEquals(0, accounts.get(2).getStatusId());
+    }
+
+    @Test
+    public void rejectsAResponseThatIsNoObject() {
+        assertThrows(IOException.class, () -> SavingsAccountSummary.find(parser("[]"), "000000001", new int[] {0, Integer.MAX_VALUE}));
+    }
+
+    private JsonParser parser(String json) throws IOException {
+        return jsonFactory.createParser(json);
+    }
+}
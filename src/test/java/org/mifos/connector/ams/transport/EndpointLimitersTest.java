@@ -0,0 +1,142 @@
+package org.mifos.connector.ams.transport;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class EndpointLimitersTest {
+
+    private static final long OPEN_MS = 200;
+
+    private final AtomicLong nanoTime = new AtomicLong();
+    private EndpointLimiters limiters;
+
+    @BeforeEach
+    public void setup() {
+        limiters = new EndpointLimiters();
+        ReflectionTestUtils.setField(limiters, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(limiters, "enabled", true);
+        ReflectionTestUtils.setField(limiters, "initialLimit", 2);
+        ReflectionTestUtils.setField(limiters, "minLimit", 1);
+        ReflectionTestUtils.setField(limiters, "maxLimit", 10);
+        ReflectionTestUtils.setField(limiters, "backoffRatio", 0.9);
+        ReflectionTestUtils.setField(limiters, "slowCallMs", 5000L);
+        ReflectionTestUtils.setField(limiters, "failureThreshold", 3);
+        ReflectionTestUtils.setField(limiters, "openMs", OPEN_MS);
+        ReflectionTestUtils.setField(limiters, "nanoTime", (LongSupplier) nanoTime::get);
+    }
+
+    @Test
+    public void rejectsCallsBeyondTheLimit() {
+        limiters.acquire("savingsaccounts", "tenant");
+        EndpointLimiters.Permit permit = limiters.acquire("savingsaccounts", "tenant");
+
+        assertThrows(EndpointUnavailableException.class, () -> limiters.acquire("savingsaccounts", "tenant"));
+        // other tenants have their own limit
+        limiters.acquire("savingsaccounts", "other");
+
+        permit.release(200, null);
+        limiters.acquire("savingsaccounts", "tenant");
+    }
+
+    @Test
+    public void opensAfterConsecutiveFailures() {
+        fail(3);
+
+        assertThrows(EndpointUnavailableException.class, () -> limiters.acquire("savingsaccounts", "tenant"));
+        elapse(OPEN_MS - 1);
+        assertThrows(EndpointUnavailableException.class, () -> limiters.acquire("savingsaccounts", "tenant"));
+    }
+
+    @Test
+    public void admitsOneProbeWhenHalfOpenAndClosesOnSuccess() {
+        fail(3);
+        elapse(OPEN_MS);
+
+        EndpointLimiters.Permit probe = limiters.acquire("savingsaccounts", "tenant");
+        assertThrows(EndpointUnavailableException.class, () -> limiters.acquire("savingsaccounts", "tenant"));
+
+        probe.release(200, null);
+        limiters.acquire("savingsaccounts", "tenant").release(200, null);
+    }
+
+    @Test
+    public void reopensWhenTheProbeFails() {
+        fail(3);
+        elapse(OPEN_MS);
+
+        limiters.acquire("savingsaccounts", "tenant").release(503, null);
+
+        assertThrows(EndpointUnavailableException.class, () -> limiters.acquire("savingsaccounts", "tenant"));
+    }
+
+    @Test
+    public void admitsANewProbeAfterTheProbeWasCancelled() {
+        fail(3);
+        elapse(OPEN_MS);
+
+        limiters.acquire("savingsaccounts", "tenant").release(null, new CancellationException());
+
+        assertThrows(EndpointUnavailableException.class, () -> limiters.acquire("savingsaccounts", "tenant"));
+        elapse(OPEN_MS - 1);
+        assertThrows(EndpointUnavailableException.class, () -> limiters.acquire("savingsaccounts", "tenant"));
+        elapse(1);
+        limiters.acquire("savingsaccounts", "tenant").release(200, null);
+        limiters.acquire("savingsaccounts", "tenant").release(200, null);
+    }
+
+    @Test
+    public void onlyTheProbeClosesTheCircuit() {
+        ReflectionTestUtils.setField(limiters, "initialLimit", 5);
+        EndpointLimiters.Permit late = limiters.acquire("savingsaccounts", "tenant");
+        fail(3);
+
+        // answers after the circuit opened
+        late.release(200, null);
+        assertThrows(EndpointUnavailableException.class, () -> limiters.acquire("savingsaccounts", "tenant"));
+
+        elapse(OPEN_MS);
+        EndpointLimiters.Permit probe = limiters.acquire("savingsaccounts", "tenant");
+        probe.release(200, null);
+        limiters.acquire("savingsaccounts", "tenant").release(200, null);
+    }
+
+    @Test
+    public void lateFailuresDoNotReopenAnOpenCircuit() {
+        ReflectionTestUtils.setField(limiters, "initialLimit", 5);
+        EndpointLimiters.Permit late = limiters.acquire("savingsaccounts", "tenant");
+        fail(3);
+        elapse(OPEN_MS);
+
+        late.release(500, null);
+
+        limiters.acquire("savingsaccounts", "tenant").release(200, null);
+    }
+
+    @Test
+    public void cancelledCallsDoNotCountAsFailures() {
+        for (int i = 0; i < 5; i++) {
+            limiters.acquire("savingsaccounts", "tenant").release(null, new CancellationException());
+        }
+
+        limiters.acquire("savingsaccounts", "tenant");
+        limiters.acquire("savingsaccounts", "tenant");
+    }
+
+    private void elapse(long millis) {
+        nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    private void fail(int calls) {
+        for (int i = 0; i < calls; i++) {
+            limiters.acquire("savingsaccounts", "tenant").release(500, null);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.mifos.connector.ams.transport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.net.URI;
+import org.junit.jupiter.api.Test;
+
+public class JdkHttpTransportTest {
+
+    @Test
+    public void encodesPartyIdentifiersInThePath() {
+        URI uri = uri("/interoperation/parties/ALIAS/jane doe#1|ü€/accounts");
+
+        assertEquals("/interoperation/parties/ALIAS/jane%20doe%231%7C%C3%BC%E2%82%AC/accounts", uri.getRawPath());
+        assertEquals("/interoperation/parties/ALIAS/jane doe#1|ü€/accounts", uri.getPath());
+    }
+
+    @Test
+    public void keepsCharactersAllowedInAPathSegment() {
+        assertEquals("/interoperation/parties/MSISDN/+255712345678/a:b@c;d=e", uri("/interoperation/parties/MSISDN/+255712345678/a:b@c;d=e")
+                .getRawPath());
+    }
+
+    @Test
+    public void keepsEscapesAlreadyInThePath() {
+        // a '%' that starts no escape is encoded itself
+        assertEquals("/parties/EMAIL/jane%40bank%252x%25", uri("/parties/EMAIL/jane%40bank%2x%").getRawPath());
+    }
+
+    @Test
+    public void encodesCharactersOutsideTheBasicPlane() {
+        assertEquals("/parties/ALIAS/%F0%9F%98%80", uri("/parties/ALIAS/😀").getRawPath());
+    }
+
+    private static URI uri(String path) {
+        StringBuilder uri = new StringBuilder("https://fineract.example:8443");
+        JdkHttpTransport.appendPath(uri, path);
+        return URI.create(uri.toString());
+    }
+}
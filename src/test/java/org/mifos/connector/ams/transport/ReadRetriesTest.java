@@ -0,0 +1,102 @@
+package org.mifos.connector.ams.transport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mifos.connector.ams.tenant.BulkheadFullException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class ReadRetriesTest {
+
+    private ReadRetries readRetries;
+
+    @BeforeEach
+    public void setup() {
+        readRetries = new ReadRetries();
+        ReflectionTestUtils.setField(readRetries, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(readRetries, "enabled", true);
+        ReflectionTestUtils.setField(readRetries, "maxAttempts", 100);
+        ReflectionTestUtils.setField(readRetries, "initialBackoffMs", 50L);
+        ReflectionTestUtils.setField(readRetries, "maxBackoffMs", 1000L);
+        ReflectionTestUtils.setField(readRetries, "budgetRatio", 0.5);
+        ReflectionTestUtils.setField(readRetries, "maxBudget", 2.0);
+    }
+
+    @Test
+    public void budgetStartsFull() {
+        assertEquals(2, retries(10));
+    }
+
+    @Test
+    public void successfulReadsRefillTheBudget() {
+        retries(10);
+        succeed(2);
+
+        assertEquals(1, retries(10));
+    }
+
+    @Test
+    public void budgetIsCappedAtMaxBudget() {
+        succeed(100);
+
+        assertEquals(2, retries(10));
+    }
+
+    @Test
+    public void budgetIsPerEndpointAndTenant() {
+        retries(10);
+
+        assertTrue(readRetries.retryDelayMs("savingsaccounts", "other", 1, 500, null) >= 0);
+        assertTrue(readRetries.retryDelayMs("clients", "tenant", 1, 500, null) >= 0);
+    }
+
+    @Test
+    public void stopsAfterMaxAttempts() {
+        ReflectionTestUtils.setField(readRetries, "maxAttempts", 3);
+
+        assertTrue(readRetries.retryDelayMs("savingsaccounts", "tenant", 2, 500, null) >= 0);
+        assertEquals(-1, readRetries.retryDelayMs("savingsaccounts", "tenant", 3, 500, null));
+    }
+
+    @Test
+    public void retriesFailuresWithoutResponseButNotRejections() {
+        assertTrue(readRetries.retryDelayMs("savingsaccounts", "tenant", 1, null, new IOException()) >= 0);
+        assertEquals(-1, readRetries.retryDelayMs("savingsaccounts", "tenant", 1, null, new BulkheadFullException("full")));
+        assertEquals(-1, readRetries.retryDelayMs("savingsaccounts", "tenant", 1, null, new CancellationException()));
+        assertEquals(-1, readRetries.retryDelayMs("savingsaccounts", "tenant", 1, 404, null));
+    }
+
+    @Test
+    public void backoffDoublesUpToMaxBackoff() {
+        ReflectionTestUtils.setField(readRetries, "maxBudget", 1000.0);
+        for (int i = 0; i < 200; i++) {
+            assertTrue(readRetries.retryDelayMs("savingsaccounts", "tenant", 1, 500, null) <= 50);
+            assertTrue(readRetries.retryDelayMs("savingsaccounts", "tenant", 2, 500, null) <= 100);
+            assertTrue(readRetries.retryDelayMs("savingsaccounts", "tenant", 30, 500, null) <= 1000);
+        }
+    }
+
+    /**
+     * @return the failed reads in a row that were retried, out of at most attempts
+     */
+    private int retries(int attempts) {
+        int retried = 0;
+        for (int i = 0; i < attempts; i++) {
+            if (readRetries.retryDelayMs("savingsaccounts", "tenant", 1, 503, null) >= 0) {
+                retried++;
+            }
+        }
+        return retried;
+    }
+
+    private void succeed(int reads) {
+        for (int i = 0; i < reads; i++) {
+            readRetries.retryDelayMs("savingsaccounts", "tenant", 1, 200, null);
+        }
+    }
+}
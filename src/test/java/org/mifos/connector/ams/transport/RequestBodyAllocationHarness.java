@@ -0,0 +1,69 @@
+package org.mifos.connector.ams.transport;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.UUID;
+import org.mifos.connector.AmsConnectorApplication;
+import org.mifos.connector.common.ams.dto.TransferFspRequestDTO;
+import org.mifos.connector.common.mojaloop.dto.FspMoneyData;
+import org.mifos.connector.common.mojaloop.type.TransactionRole;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Measures the bytes allocated to serialize one transfer request body, as the body was sent before and as it is sent now:
+ *
+ * <pre>
+ * java ... RequestBodyAllocationHarness 1000000
+ * </pre>
+ *
+ * Before: the debug serialization of PrepareTransferRequest, which ran whatever the log level, pojoToString, and the
+ * UTF-8 encoding of the String by the cxf client. Now: pojoToJson only. Prints allocated bytes per transfer, no
+ * assertions.
+ */
+public final class RequestBodyAllocationHarness {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RequestBodyAllocationHarness.class);
+
+    private RequestBodyAllocationHarness() {}
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        ObjectMapper objectMapper = new AmsConnectorApplication().objectMapper();
+        TransferFspRequestDTO transfer = new TransferFspRequestDTO(UUID.randomUUID().toString(), UUID.randomUUID().toString(),
+                UUID.randomUUID().toString(), new FspMoneyData(new BigDecimal("1250.75"), "USD"), TransactionRole.PAYER);
+
+        run("before", iterations, () -> {
+            objectMapper.writeValueAsString(transfer);
+            return objectMapper.writeValueAsString(transfer).getBytes(UTF_8).length;
+        });
+        run("after", iterations, () -> objectMapper.writeValueAsBytes(transfer).length);
+    }
+
+    private static void run(String path, int iterations, Serialization serialization) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long length = 0;
+        // warm up the serializers and the recycled buffers of jackson
+        for (int i = 0; i < iterations / 10; i++) {
+            length += serialization.serialize();
+        }
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            length += serialization.serialize();
+        }
+        long nanos = System.nanoTime() - start;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        LOGGER.info("{}: {} bytes allocated per transfer, {} ns per transfer ({} body bytes written)", path, allocated / iterations,
+                nanos / iterations, length);
+    }
+
+    @FunctionalInterface
+    private interface Serialization {
+
+        int serialize() throws Exception;
+    }
+}
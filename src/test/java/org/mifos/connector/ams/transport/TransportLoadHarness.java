@@ -0,0 +1,99 @@
+package org.mifos.connector.ams.transport;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.ws.rs.core.Response;
+import org.apache.cxf.jaxrs.client.WebClient;
+import org.apache.cxf.transport.http.HTTPConduit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Load harness comparing the cxf client the cxfrs transport uses with the pooled {@link HttpClient} of
+ * {@link JdkHttpTransport}, run against a Fineract or mock-service url:
+ *
+ * <pre>
+ * java ... TransportLoadHarness https://localhost:8443/fineract-provider/api/v1/interoperation/health 10000 64
+ * </pre>
+ *
+ * Prints throughput and latency percentiles per transport, no assertions.
+ */
+public final class TransportLoadHarness {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TransportLoadHarness.class);
+
+    private TransportLoadHarness() {}
+
+    public static void main(String[] args) throws Exception {
+        String url = args[0];
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int concurrency = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+
+        // the cxf client is not thread safe, every thread uses its own like the synchronous cxfrs producer
+        ThreadLocal<WebClient> cxfClients = ThreadLocal.withInitial(() -> {
+            WebClient client = WebClient.create(url);
+            HTTPConduit conduit = WebClient.getConfig(client).getHttpConduit();
+            conduit.getClient().setAllowChunking(false);
+            return client;
+        });
+        run("cxf", requests, concurrency, () -> {
+            Response response = cxfClients.get().get();
+            response.readEntity(String.class);
+            return response.getStatus();
+        });
+
+        HttpClient jdkClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_2).connectTimeout(Duration.ofSeconds(5)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(30)).GET().build();
+        run("jdk", requests, concurrency, () -> jdkClient.send(request, HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+
+    private static void run(String transport, int requests, int concurrency, Call call) throws InterruptedException {
+        long[] latencies = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        long start = System.nanoTime();
+        for (int i = 0; i < concurrency; i++) {
+            executor.execute(() -> {
+                for (int n = next.getAndIncrement(); n < requests; n = next.getAndIncrement()) {
+                    long callStart = System.nanoTime();
+                    try {
+                        if (call.send() >= 500) {
+                            failures.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    }
+                    latencies[n] = System.nanoTime() - callStart;
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.HOURS);
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        LOGGER.info("{}: {} requests, {} failed, {} req/s, p50 {} ms, p99 {} ms, max {} ms", transport, requests, failures.get(),
+                requests * 1_000_000_000L / elapsed, percentile(latencies, 0.5), percentile(latencies, 0.99),
+                percentile(latencies, 1.0));
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        int index = Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1);
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    @FunctionalInterface
+    private interface Call {
+
+        int send() throws Exception;
+    }
+}
@@ -0,0 +1,69 @@
+package org.mifos.connector.ams.zeebe;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.camunda.zeebe.client.api.response.ActivatedJob;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class ActivationControllerTest {
+
+    private static final String JOB_TYPE = "payee-deposit-transfer-DFSPID";
+
+    private final List<Long> finished = new ArrayList<>();
+    private ActivationController activationController;
+
+    @BeforeEach
+    public void setup() {
+        activationController = new ActivationController();
+        ReflectionTestUtils.setField(activationController, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(activationController, "maxMaxJobsActive", 32);
+        ReflectionTestUtils.setField(activationController, "minPollIntervalMs", 1L);
+        activationController.onJobFinished(finished::add);
+    }
+
+    @Test
+    public void countsRequestedJobsUntilTheyFinish() {
+        activationController.jobsRequested(JOB_TYPE, 3);
+        activationController.jobsNotActivated(JOB_TYPE, 1);
+        // activated, still waiting for a handler thread
+        assertEquals(2, activationController.inFlight(JOB_TYPE));
+
+        activationController.jobStarted(job(1));
+        activationController.jobStarted(job(2));
+        activationController.jobFinished(1);
+        activationController.jobFinished(1);
+
+        assertEquals(1, activationController.inFlight(JOB_TYPE));
+        assertEquals(List.of(1L), finished);
+    }
+
+    @Test
+    public void countsEveryActivationOfARedeliveredJob() {
+        activationController.jobsRequested(JOB_TYPE, 2);
+        activationController.jobStarted(job(1));
+        // activated again after its timeout while the first activation still runs
+        activationController.jobStarted(job(1));
+
+        activationController.jobFinished(1);
+        assertEquals(1, activationController.inFlight(JOB_TYPE));
+        activationController.jobFinished(1);
+        activationController.jobFinished(1);
+
+        assertEquals(0, activationController.inFlight(JOB_TYPE));
+        assertEquals(List.of(1L, 1L), finished);
+    }
+
+    private static ActivatedJob job(long key) {
+        ActivatedJob job = mock(ActivatedJob.class);
+        when(job.getKey()).thenReturn(key);
+        when(job.getType()).thenReturn(JOB_TYPE);
+        return job;
+    }
+}
@@ -0,0 +1,85 @@
+package org.mifos.connector.ams.zeebe;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mifos.connector.common.exception.PaymentHubError;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class JobMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private JobMetrics jobMetrics;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        jobMetrics = new JobMetrics();
+        ReflectionTestUtils.setField(jobMetrics, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(jobMetrics, "dfspids", List.of("DFSPID", "ibank-usa"));
+    }
+
+    @Test
+    public void resolvesTheDfspOfTheJobType() {
+        assertEquals("ibank-usa", jobMetrics.dfsp("payee-deposit-transfer-ibank-usa"));
+        assertEquals("DFSPID", jobMetrics.dfsp("payer-block-funds-DFSPID"));
+        assertEquals(JobMetrics.NONE, jobMetrics.dfsp("transfer-settlement"));
+        assertEquals(JobMetrics.NONE, jobMetrics.dfsp(null));
+    }
+
+    @Test
+    public void tagsMissingJobTypeAndTenantAsNone() {
+        assertEquals(Tags.of("jobType", "payee-user-lookup-DFSPID", "dfsp", "DFSPID", "tenant", "tn01"),
+                jobMetrics.tags("payee-user-lookup-DFSPID", "tn01"));
+        assertEquals(Tags.of("jobType", JobMetrics.NONE, "dfsp", JobMetrics.NONE, "tenant", JobMetrics.NONE), jobMetrics.tags(null, null));
+    }
+
+    @Test
+    public void countsPaymentHubErrorsByCode() {
+        String code = PaymentHubError.PayerNotFound.getErrorCode();
+        jobMetrics.countError("payer-block-funds-DFSPID", "tn01", code);
+        jobMetrics.countError("payer-block-funds-DFSPID", "tn01", code);
+
+        assertEquals(2, meterRegistry.get(JobMetrics.ERRORS_METRIC).tag("jobType", "payer-block-funds-DFSPID").tag("dfsp", "DFSPID")
+                .tag("tenant", "tn01").tag("errorCode", code).counter().count());
+    }
+
+    @Test
+    public void countsOtherErrorCodesAsUnmapped() {
+        jobMetrics.countError("payer-block-funds-DFSPID", "tn01", "not-a-payment-hub-error");
+        jobMetrics.countError("payer-block-funds-DFSPID", "tn01", null);
+
+        assertEquals(2, meterRegistry.get(JobMetrics.ERRORS_METRIC).tag("errorCode", "unmapped").counter().count());
+    }
+
+    @Test
+    public void recordsFineractCallsByStatusClass() {
+        jobMetrics.recordFineractCall("payer-block-funds-DFSPID", "tn01", "savingsaccounts", 201, TimeUnit.MILLISECONDS.toNanos(5));
+        jobMetrics.recordFineractCall("payer-block-funds-DFSPID", "tn01", "savingsaccounts", 503, TimeUnit.MILLISECONDS.toNanos(5));
+        jobMetrics.recordFineractCall(null, null, "savingsaccounts", null, TimeUnit.MILLISECONDS.toNanos(5));
+
+        assertEquals(1, fineractCalls("2xx").count());
+        assertEquals(1, fineractCalls("5xx").count());
+        Timer failed = meterRegistry.get(JobMetrics.FINERACT_METRIC).tag("status", "error").tag("jobType", JobMetrics.NONE).timer();
+        assertEquals(5, failed.totalTime(TimeUnit.MILLISECONDS), 0.001);
+    }
+
+    @Test
+    public void tagsHandlerTimesWithTheOutcome() {
+        jobMetrics.recordHandler("payee-user-lookup-DFSPID", "tn01", "completed", TimeUnit.MILLISECONDS.toNanos(3));
+
+        assertNotNull(meterRegistry.get(JobMetrics.HANDLER_METRIC).tag("outcome", "completed").tag("dfsp", "DFSPID").timer());
+    }
+
+    private Timer fineractCalls(String status) {
+        return meterRegistry.get(JobMetrics.FINERACT_METRIC).tag("jobType", "payer-block-funds-DFSPID").tag("endpoint", "savingsaccounts")
+                .tag("status", status).timer();
+    }
+}